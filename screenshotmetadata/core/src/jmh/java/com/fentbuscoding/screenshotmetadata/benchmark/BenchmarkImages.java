@@ -0,0 +1,140 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.metadata.ParallelPngEncoder;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Synthetic screenshots and metadata shared by the benchmarks.
+ */
+final class BenchmarkImages {
+
+    private BenchmarkImages() {
+    }
+
+    /**
+     * Writes an RGBA PNG with a gradient-and-noise pattern, so it deflates about as well as a real frame.
+     */
+    static void writeScreenshot(Path file, int width, int height) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            ParallelPngEncoder.encode(pixels(width, height), Map.of(), 0, out);
+        }
+    }
+
+    /**
+     * The same pattern as {@link #writeScreenshot}, as an in-memory ARGB image.
+     */
+    static BufferedImage createFrame(int width, int height) {
+        ParallelPngEncoder.PixelSource pixels = pixels(width, height);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        byte[] row = new byte[width * 4];
+        int[] argb = new int[width];
+        for (int y = 0; y < height; y++) {
+            pixels.readRow(y, row);
+            for (int x = 0; x < width; x++) {
+                int offset = x * 4;
+                argb[x] = (row[offset + 3] & 0xFF) << 24 | (row[offset] & 0xFF) << 16
+                    | (row[offset + 1] & 0xFF) << 8 | (row[offset + 2] & 0xFF);
+            }
+            image.setRGB(0, y, width, 1, argb, 0, width);
+        }
+        return image;
+    }
+
+    private static ParallelPngEncoder.PixelSource pixels(int width, int height) {
+        return new ParallelPngEncoder.PixelSource() {
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public boolean hasAlpha() {
+                return true;
+            }
+
+            @Override
+            public void readRow(int y, byte[] target) {
+                int seed = y * 0x9E3779B1;
+                for (int x = 0; x < width; x++) {
+                    seed ^= seed << 13;
+                    seed ^= seed >>> 17;
+                    seed ^= seed << 5;
+                    int offset = x * 4;
+                    target[offset] = (byte) (x * 255 / width + (seed & 7));
+                    target[offset + 1] = (byte) (y * 255 / height + ((seed >> 3) & 7));
+                    target[offset + 2] = (byte) ((x + y) >> 3);
+                    target[offset + 3] = (byte) 0xFF;
+                }
+            }
+        };
+    }
+
+    /**
+     * Metadata shaped like a full-profile capture.
+     */
+    static Map<String, String> captureMetadata() {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("Username", "BenchmarkPlayer");
+        metadata.put("PlayerUuid", "00000000-0000-0000-0000-000000000000");
+        metadata.put("X", "1024");
+        metadata.put("Y", "72");
+        metadata.put("Z", "-2048");
+        metadata.put("Yaw", "90.0");
+        metadata.put("Pitch", "-12.5");
+        metadata.put("Facing", "West");
+        metadata.put("World", "minecraft:overworld");
+        metadata.put("DimensionId", "minecraft:overworld");
+        metadata.put("Dimension", "Overworld");
+        metadata.put("Biome", "Dark Forest");
+        metadata.put("BiomeId", "minecraft:dark_forest");
+        metadata.put("TimeOfDayTicks", "6000");
+        metadata.put("TimeOfDay", "12:00");
+        metadata.put("Weather", "Clear");
+        metadata.put("WorldName", "Benchmark World");
+        metadata.put("WorldSeed", "1234567890");
+        metadata.put("ServerType", "Singleplayer");
+        metadata.put("Timestamp", "2026-01-01T12:00:00Z");
+        metadata.put("MinecraftVersion", "1.21.11");
+        metadata.put("ModVersion", "benchmark");
+        metadata.put("Health", "20.0");
+        metadata.put("HungerLevel", "20");
+        metadata.put("AverageFps", "144.0");
+        metadata.put("RenderDistance", "12");
+        metadata.put("MainHandItem", "Diamond Pickaxe");
+        metadata.put("PotionEffects", "Speed 2 (600t), Night Vision (3600t)");
+        return metadata;
+    }
+
+    /**
+     * A potion-effect list with every effect a beacon, conduit and brewing stand can stack.
+     */
+    static String longEffectList() {
+        String[] effects = {
+            "Speed 2", "Haste 2", "Strength 2", "Jump Boost 2", "Regeneration 2", "Resistance 2",
+            "Fire Resistance", "Water Breathing", "Invisibility", "Night Vision", "Health Boost 2",
+            "Absorption 4", "Saturation", "Luck", "Slow Falling", "Conduit Power", "Dolphin's Grace",
+            "Hero of the Village 3"
+        };
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < effects.length; i++) {
+            if (i > 0) {
+                list.append(", ");
+            }
+            list.append(effects[i]).append(" (").append(3600 + i * 517).append("t)");
+        }
+        return list.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.capture.FrameTimeRing;
+import com.fentbuscoding.screenshotmetadata.capture.JvmStatsSampler;
+import com.fentbuscoding.screenshotmetadata.metadata.JvmStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costs paid on the render thread: recording a frame every frame, and the statistics read once
+ * per capture. All of them should stay far below a frame's budget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CaptureStatsBenchmark {
+    private final FrameTimeRing frames = FrameTimeRing.get();
+    private long frameClock;
+
+    @Setup(Level.Trial)
+    public void fillRing() {
+        for (int i = 0; i < 4096; i++) {
+            recordFrame();
+        }
+    }
+
+    @Benchmark
+    public void recordFrame() {
+        // 144 fps with some jitter
+        frameClock += 6_944_444L + (frameClock & 0xFFFFL);
+        frames.recordFrame(frameClock);
+    }
+
+    @Benchmark
+    public FrameTimeRing.Stats frameTimeStats() {
+        return frames.stats();
+    }
+
+    @Benchmark
+    public JvmStats sampleJvmStats() {
+        return JvmStatsSampler.sample();
+    }
+}
@@ -0,0 +1,80 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.metadata.ParallelPngEncoder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a large frame with {@link ParallelPngEncoder} against {@link ImageIO#write}. Output
+ * goes to a counting stream, so the time is encoding only and {@code outputBytes} is the PNG size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PngEncoderBenchmark {
+
+    @Param({"1920x1080", "3840x2160"})
+    public String resolution;
+
+    private BufferedImage frame;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        // Set rather than accumulated: every invocation encodes the same frame
+        public long outputBytes;
+    }
+
+    @Setup
+    public void createFrame() {
+        int separator = resolution.indexOf('x');
+        frame = BenchmarkImages.createFrame(Integer.parseInt(resolution.substring(0, separator)),
+            Integer.parseInt(resolution.substring(separator + 1)));
+        // Encode straight to the stream, as the mod does, not through a temp-file cache
+        ImageIO.setUseCache(false);
+    }
+
+    @Benchmark
+    public long parallelEncoder(Output output) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ParallelPngEncoder.encode(ParallelPngEncoder.fromImage(frame), Map.of(), 0, out);
+        output.outputBytes = out.count;
+        return out.count;
+    }
+
+    @Benchmark
+    public long imageIo(Output output) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        ImageIO.write(frame, "png", out);
+        output.outputBytes = out.count;
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.metadata.DuplicateMode;
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.PngMetadataWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteOptions;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Splicing metadata into a freshly saved 1080p screenshot, at each durability level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PngMetadataWriterBenchmark {
+
+    @Param({"none", "file", "directory"})
+    public String durability;
+
+    private Path directory;
+    private Path pristine;
+    private File screenshot;
+    private Map<String, String> metadata;
+    private PngWriteOptions options;
+
+    @Setup(Level.Trial)
+    public void createScreenshot() throws IOException {
+        directory = Files.createTempDirectory("screenshotmetadata-bench");
+        pristine = directory.resolve("pristine.png");
+        BenchmarkImages.writeScreenshot(pristine, 1920, 1080);
+        screenshot = directory.resolve("screenshot.png").toFile();
+        metadata = BenchmarkImages.captureMetadata();
+        options = new PngWriteOptions(1024, PngWriteOptions.DEFAULT_PARALLEL_ENCODE_MIN_PIXELS,
+            DuplicateMode.OFF, false, Durability.fromId(durability));
+    }
+
+    // Every write starts from the file as the game saved it
+    @Setup(Level.Invocation)
+    public void resetScreenshot() throws IOException {
+        Files.copy(pristine, screenshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public PngWriteResult writeMetadata() throws IOException {
+        return PngMetadataWriter.writeMetadata(screenshot, metadata, options);
+    }
+}
@@ -0,0 +1,77 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Several threads writing JSON sidecars into one folder at each durability level, where their
+ * directory flushes can be shared. Comparing against a run with {@code -t 1} shows what the
+ * sharing saves; file flushes are never shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class SidecarSyncBenchmark {
+
+    @Param({"none", "file", "directory"})
+    public String durability;
+
+    private final AtomicInteger nextScreenshot = new AtomicInteger();
+    private Path directory;
+    private Map<String, String> metadata;
+    private Durability level;
+
+    // Each thread writes the sidecar of its own screenshot
+    @State(Scope.Thread)
+    public static class Screenshot {
+        private File file;
+
+        @Setup(Level.Trial)
+        public void createScreenshot(SidecarSyncBenchmark shared) throws IOException {
+            Path image = shared.directory.resolve("screenshot-" + shared.nextScreenshot.getAndIncrement() + ".png");
+            BenchmarkImages.writeScreenshot(image, 64, 64);
+            file = image.toFile();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("screenshotmetadata-bench");
+        metadata = BenchmarkImages.captureMetadata();
+        level = Durability.fromId(durability);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void writeJson(Screenshot screenshot) {
+        JsonSidecarWriter.writeSidecarFile(screenshot.file, metadata, null, level);
+    }
+}
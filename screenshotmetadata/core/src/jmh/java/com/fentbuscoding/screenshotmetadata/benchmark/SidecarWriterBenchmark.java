@@ -0,0 +1,66 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarContext;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.XmpSidecarWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writing the XMP and JSON sidecars of one capture, without fsync.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SidecarWriterBenchmark {
+    private Path directory;
+    private File screenshot;
+    private Map<String, String> metadata;
+    private JsonSidecarContext context;
+
+    @Setup(Level.Trial)
+    public void createScreenshot() throws IOException {
+        directory = Files.createTempDirectory("screenshotmetadata-bench");
+        Path image = directory.resolve("screenshot.png");
+        BenchmarkImages.writeScreenshot(image, 64, 64);
+        screenshot = image.toFile();
+        metadata = BenchmarkImages.captureMetadata();
+        context = new JsonSidecarContext(List.of("vanilla", "file/faithful.zip"), "None",
+            List.of("fabric-api@0.141.3", "screenshotmetadata@1.2.0"), 2, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void writeXmp() {
+        XmpSidecarWriter.writeSidecarFile(screenshot, metadata, Durability.NONE);
+    }
+
+    @Benchmark
+    public void writeJson() {
+        JsonSidecarWriter.writeSidecarFile(screenshot, metadata, context, Durability.NONE);
+    }
+}
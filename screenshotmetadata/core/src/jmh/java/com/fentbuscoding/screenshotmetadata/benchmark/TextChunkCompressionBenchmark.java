@@ -0,0 +1,68 @@
+package com.fentbuscoding.screenshotmetadata.benchmark;
+
+import com.fentbuscoding.screenshotmetadata.metadata.PngTextChunks;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a capture's text chunks at each compression threshold and deflate level. The
+ * {@code outputBytes} counter is the size of the chunks written, so the level and threshold
+ * trade-off can be read off one run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextChunkCompressionBenchmark {
+
+    /**
+     * "typical" is the full-profile capture; "effects" adds the long potion-effect list a
+     * beacon-and-brewing loadout produces, the one value that regularly crosses the thresholds.
+     */
+    @Param({"typical", "effects"})
+    public String payload;
+
+    @Param({"0", "256", "512", "1024"})
+    public int threshold;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private Map<String, String> metadata;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Output {
+        // Set rather than accumulated: every invocation writes the same bytes
+        public long outputBytes;
+    }
+
+    @Setup
+    public void createMetadata() {
+        metadata = BenchmarkImages.captureMetadata();
+        if ("effects".equals(payload)) {
+            metadata.put("PotionEffects", BenchmarkImages.longEffectList());
+        }
+    }
+
+    @Benchmark
+    public int writeTextChunks(Output output) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            PngTextChunks.writeTextChunk(out, entry.getKey(), entry.getValue(), threshold, level);
+        }
+        output.outputBytes = out.size();
+        return out.size();
+    }
+}
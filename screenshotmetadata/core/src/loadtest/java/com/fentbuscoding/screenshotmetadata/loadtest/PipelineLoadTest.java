@@ -0,0 +1,449 @@
+package com.fentbuscoding.screenshotmetadata.loadtest;
+
+import com.fentbuscoding.screenshotmetadata.ClientPlatform;
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarContext;
+import com.fentbuscoding.screenshotmetadata.metadata.ParallelPngEncoder;
+import com.fentbuscoding.screenshotmetadata.pipeline.CaptureSnapshot;
+import com.fentbuscoding.screenshotmetadata.pipeline.ScreenshotPipeline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load test of the screenshot pipeline against synthetic screenshot folders.
+ *
+ * <p>For each folder size it fills {@code screenshots/} with dummy PNGs, then replays captures at
+ * a fixed rate the way the game does: the pre-save scan on the "render" thread, the PNG written on
+ * an IO thread, and the capture submitted to {@link ScreenshotPipeline}, which detects the file,
+ * renames it and writes the PNG metadata and sidecars. Latency is measured from submission until
+ * the pipeline reports the job finished.
+ *
+ * <p>Run with {@code ./gradlew :core:loadTest}; pass options through
+ * {@code -PloadTestArgs="--sizes 1000,10000 --rates 2,10"}. Options:
+ * <ul>
+ *   <li>{@code --sizes} dummy screenshots per folder (default {@code 1000,10000,100000})</li>
+ *   <li>{@code --rates} captures per second (default {@code 2})</li>
+ *   <li>{@code --captures} captures per run (default {@code 50})</li>
+ *   <li>{@code --width}, {@code --height} capture size (default {@code 854x480})</li>
+ *   <li>{@code --durability} {@code none}, {@code file} or {@code directory} (default {@code file})</li>
+ *   <li>{@code --rename} apply the default naming template</li>
+ *   <li>{@code --colliding} name the dummies after the template, so every rename walks the whole collision chain</li>
+ *   <li>{@code --dir} work directory (default a temp directory) and {@code --keep} to leave it behind</li>
+ * </ul>
+ */
+public final class PipelineLoadTest {
+    private static final DateTimeFormatter VANILLA_NAME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss", Locale.ROOT);
+    private static final LocalDateTime DUMMY_EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final long COMPLETION_TIMEOUT_MILLIS = 600_000L;
+
+    private PipelineLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Path root = options.directory != null
+            ? Files.createDirectories(options.directory)
+            : Files.createTempDirectory("screenshotmetadata-loadtest");
+        ScreenshotMetadataCore.install(platform(root));
+
+        System.out.printf(Locale.ROOT, "Work directory: %s%n", root.toAbsolutePath());
+        System.out.printf(Locale.ROOT, "%d captures of %dx%d per run, durability %s, rename %s%s%n%n",
+            options.captures, options.width, options.height, options.durability.id,
+            options.rename ? "on" : "off", options.colliding ? " (colliding dummies)" : "");
+        System.out.println(Result.HEADER);
+
+        try {
+            for (int size : options.sizes) {
+                for (double rate : options.rates) {
+                    System.out.println(run(root, size, rate, options).format());
+                }
+            }
+        } finally {
+            ScreenshotPipeline.get().shutdown(ScreenshotMetadataConfig.get().getShutdownDrainTimeoutMillis());
+            if (!options.keep) {
+                deleteRecursively(root);
+            }
+        }
+    }
+
+    private static Result run(Path root, int size, double rate, Options options) throws Exception {
+        Path gameDirectory = root.resolve(String.format(Locale.ROOT, "files-%d_rate-%s", size, rate));
+        Path screenshots = Files.createDirectories(gameDirectory.resolve("screenshots"));
+        populate(screenshots, size, options.colliding);
+
+        ScreenshotMetadataConfig config = new ScreenshotMetadataConfig();
+        // The game's frame is not available here, so the file is found and spliced like a non-direct write
+        config.setEncodeFromNativeImage(false);
+        config.setBackgroundMaxDeferMillis(0L);
+        config.setDurability(options.durability.id);
+        config.setRenameScreenshots(options.rename);
+        Map<String, String> metadata = captureMetadata();
+        JsonSidecarContext sidecarContext = new JsonSidecarContext(List.of("vanilla"), "None",
+            List.of("screenshotmetadata@loadtest"), 1, false);
+
+        long bytesBefore = folderBytes(screenshots);
+        resetPeakHeap();
+
+        int captures = options.captures;
+        long[] latencies = new long[captures];
+        long[] scans = new long[captures];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong imageBytes = new AtomicLong();
+        AtomicLong lastCompletion = new AtomicLong();
+        CountDownLatch completed = new CountDownLatch(captures);
+
+        ScheduledExecutorService render = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "Load Test Render"));
+        ExecutorService io = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "Load Test IO"));
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        ScheduledFuture<?> schedule = render.scheduleAtFixedRate(() -> {
+            int index = next.getAndIncrement();
+            if (index >= captures) {
+                return;
+            }
+            long scanStart = System.nanoTime();
+            File preSaveNewest = newestScreenshot(screenshots.toFile());
+            scans[index] = System.nanoTime() - scanStart;
+
+            io.execute(() -> imageBytes.addAndGet(writeCapture(screenshots, index, options)));
+            CaptureSnapshot snapshot = new CaptureSnapshot(gameDirectory.toFile(), preSaveNewest,
+                System.currentTimeMillis(), metadata, sidecarContext, config);
+            long submitted = System.nanoTime();
+            ScreenshotPipeline.get().submit(snapshot).whenComplete((file, error) -> {
+                long now = System.nanoTime();
+                latencies[index] = now - submitted;
+                lastCompletion.accumulateAndGet(now, Math::max);
+                if (file == null || error != null) {
+                    failed.incrementAndGet();
+                }
+                completed.countDown();
+            });
+        }, 0L, periodNanos, TimeUnit.NANOSECONDS);
+
+        boolean finished = completed.await(COMPLETION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        schedule.cancel(false);
+        render.shutdown();
+        io.shutdown();
+        io.awaitTermination(10, TimeUnit.SECONDS);
+        if (!finished) {
+            throw new IllegalStateException("Pipeline did not finish " + captures + " captures within "
+                + COMPLETION_TIMEOUT_MILLIS + " ms");
+        }
+
+        long written = folderBytes(screenshots) - bytesBefore;
+        double seconds = (lastCompletion.get() - start) / 1e9;
+        return new Result(size, rate, captures, captures / seconds, latencies, scans,
+            written, imageBytes.get(), peakHeap(), failed.get());
+    }
+
+    /**
+     * Same scan the screenshot mixin runs before the game saves, on the render thread.
+     */
+    private static File newestScreenshot(File screenshotsDir) {
+        File[] files = screenshotsDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".png"));
+        if (files == null) {
+            return null;
+        }
+        return Arrays.stream(files)
+            .max(Comparator.comparing(File::getName).thenComparingLong(File::lastModified))
+            .orElse(null);
+    }
+
+    /**
+     * Writes one capture the way vanilla does: the first free {@code yyyy-MM-dd_HH.mm.ss[_n].png}
+     * name, and an image that differs from every other capture so none are flagged as duplicates.
+     */
+    private static long writeCapture(Path screenshots, int index, Options options) {
+        String base = LocalDateTime.now().format(VANILLA_NAME);
+        Path target = screenshots.resolve(base + ".png");
+        for (int suffix = 1; Files.exists(target); suffix++) {
+            target = screenshots.resolve(base + "_" + suffix + ".png");
+        }
+        byte[] png = encode(new SyntheticFrame(options.width, options.height, index + 1));
+        try {
+            Files.write(target, png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.length;
+    }
+
+    private static void populate(Path screenshots, int count, boolean colliding) throws IOException {
+        byte[] dummy = encode(new SyntheticFrame(16, 16, 0));
+        // What the default template makes of the replayed metadata, so renames start at the end of the chain
+        String collidingBase = LocalDate.now() + "_Overworld_X1024_Z-2048";
+        for (int i = 0; i < count; i++) {
+            String name = colliding
+                ? (i == 0 ? collidingBase : collidingBase + "_" + i)
+                : DUMMY_EPOCH.plusSeconds(i).format(VANILLA_NAME);
+            Files.write(screenshots.resolve(name + ".png"), dummy);
+        }
+    }
+
+    private static Map<String, String> captureMetadata() {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("Username", "LoadTestPlayer");
+        metadata.put("X", "1024");
+        metadata.put("Y", "72");
+        metadata.put("Z", "-2048");
+        metadata.put("Facing", "West");
+        metadata.put("World", "minecraft:overworld");
+        metadata.put("Dimension", "Overworld");
+        metadata.put("Biome", "Dark Forest");
+        metadata.put("TimeOfDay", "12:00");
+        metadata.put("Weather", "Clear");
+        metadata.put("WorldName", "Load Test World");
+        metadata.put("ServerType", "Singleplayer");
+        metadata.put("MinecraftVersion", "1.21.11");
+        metadata.put("ModVersion", "loadtest");
+        metadata.put("AverageFps", "144.0");
+        metadata.put("MainHandItem", "Diamond Pickaxe");
+        return metadata;
+    }
+
+    private static byte[] encode(ParallelPngEncoder.PixelSource pixels) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ParallelPngEncoder.encode(pixels, Map.of(), 0, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static long folderBytes(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0L;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static ClientPlatform platform(Path root) {
+        return new ClientPlatform() {
+            @Override
+            public Path configDirectory() {
+                return root.resolve("config");
+            }
+
+            @Override
+            public Path gameDirectory() {
+                return root;
+            }
+
+            @Override
+            public String modVersion() {
+                return "loadtest";
+            }
+        };
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Gradient with seeded noise; a different seed gives a different content hash.
+     */
+    private record SyntheticFrame(int width, int height, int seed) implements ParallelPngEncoder.PixelSource {
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public boolean hasAlpha() {
+            return true;
+        }
+
+        @Override
+        public void readRow(int y, byte[] target) {
+            int state = (y + 1) * 0x9E3779B1 ^ seed * 0x85EBCA6B;
+            for (int x = 0; x < width; x++) {
+                state ^= state << 13;
+                state ^= state >>> 17;
+                state ^= state << 5;
+                int offset = x * 4;
+                target[offset] = (byte) (x * 255 / width + (state & 7));
+                target[offset + 1] = (byte) (y * 255 / height + ((state >> 3) & 7));
+                target[offset + 2] = (byte) (seed + ((x + y) >> 3));
+                target[offset + 3] = (byte) 0xFF;
+            }
+        }
+    }
+
+    private static final class Result {
+        static final String HEADER = String.format(Locale.ROOT, "%9s %7s %8s %10s %9s %9s %9s %10s %10s %10s %10s %10s %6s",
+            "files", "rate/s", "captures", "done/s", "p50 ms", "p99 ms", "max ms", "scan p50", "scan p99",
+            "written MB", "meta KB", "heap MB", "failed");
+
+        private final int files;
+        private final double rate;
+        private final int captures;
+        private final double throughput;
+        private final long[] latencies;
+        private final long[] scans;
+        private final long bytesWritten;
+        private final long imageBytes;
+        private final long peakHeap;
+        private final int failed;
+
+        Result(int files, double rate, int captures, double throughput, long[] latencies, long[] scans,
+               long bytesWritten, long imageBytes, long peakHeap, int failed) {
+            this.files = files;
+            this.rate = rate;
+            this.captures = captures;
+            this.throughput = throughput;
+            this.latencies = latencies.clone();
+            this.scans = scans.clone();
+            Arrays.sort(this.latencies);
+            Arrays.sort(this.scans);
+            this.bytesWritten = bytesWritten;
+            this.imageBytes = imageBytes;
+            this.peakHeap = peakHeap;
+            this.failed = failed;
+        }
+
+        String format() {
+            return String.format(Locale.ROOT, "%9d %7.1f %8d %10.2f %9.1f %9.1f %9.1f %10.2f %10.2f %10.2f %10.1f %10.1f %6d",
+                files, rate, captures, throughput,
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+                millis(latencies[latencies.length - 1]),
+                millis(percentile(scans, 0.50)), millis(percentile(scans, 0.99)),
+                // Everything the folder grew by, and the part of that the mod added to the game's PNGs
+                megabytes(bytesWritten), (bytesWritten - imageBytes) / 1024.0,
+                megabytes(peakHeap), failed);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+
+        private static double megabytes(long bytes) {
+            return bytes / (1024.0 * 1024.0);
+        }
+    }
+
+    private static final class Options {
+        List<Integer> sizes = List.of(1_000, 10_000, 100_000);
+        List<Double> rates = List.of(2.0);
+        int captures = 50;
+        int width = 854;
+        int height = 480;
+        Durability durability = Durability.FILE;
+        boolean rename;
+        boolean colliding;
+        boolean keep;
+        Path directory;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--sizes" -> options.sizes = parseList(value(args, ++i, arg), Integer::parseInt);
+                    case "--rates" -> options.rates = parseList(value(args, ++i, arg), Double::parseDouble);
+                    case "--captures" -> options.captures = Math.max(1, Integer.parseInt(value(args, ++i, arg)));
+                    case "--width" -> options.width = Math.max(1, Integer.parseInt(value(args, ++i, arg)));
+                    case "--height" -> options.height = Math.max(1, Integer.parseInt(value(args, ++i, arg)));
+                    case "--durability" -> options.durability = Durability.fromId(value(args, ++i, arg));
+                    case "--rename" -> options.rename = true;
+                    case "--colliding" -> {
+                        options.colliding = true;
+                        options.rename = true;
+                    }
+                    case "--dir" -> options.directory = Path.of(value(args, ++i, arg));
+                    case "--keep" -> options.keep = true;
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            if (options.rates.stream().anyMatch(rate -> rate <= 0.0)) {
+                throw new IllegalArgumentException("Rates must be positive");
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            return args[index];
+        }
+
+        private static <T> List<T> parseList(String raw, Function<String, T> parser) {
+            List<T> values = new ArrayList<>();
+            for (String part : raw.split(",")) {
+                if (!part.isBlank()) {
+                    values.add(parser.apply(part.trim()));
+                }
+            }
+            return List.copyOf(values);
+        }
+    }
+}
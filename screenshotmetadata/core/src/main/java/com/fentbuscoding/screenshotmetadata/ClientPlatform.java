@@ -0,0 +1,47 @@
+package com.fentbuscoding.screenshotmetadata;
+
+import java.nio.file.Path;
+
+/**
+ * What the metadata pipeline needs from the game client it runs in. The Fabric mod installs its
+ * implementation at startup; benchmarks and tools run with {@link #defaults()}.
+ */
+public interface ClientPlatform {
+
+    /**
+     * Folder holding the mod's config file and journal.
+     */
+    Path configDirectory();
+
+    /**
+     * Game directory, the parent of the screenshots folder.
+     */
+    Path gameDirectory();
+
+    /**
+     * Version written into generated metadata.
+     */
+    String modVersion();
+
+    /**
+     * Relative to the working directory, which is the game directory in a normal launch.
+     */
+    static ClientPlatform defaults() {
+        return new ClientPlatform() {
+            @Override
+            public Path configDirectory() {
+                return Path.of("config");
+            }
+
+            @Override
+            public Path gameDirectory() {
+                return Path.of("");
+            }
+
+            @Override
+            public String modVersion() {
+                return "unknown";
+            }
+        };
+    }
+}
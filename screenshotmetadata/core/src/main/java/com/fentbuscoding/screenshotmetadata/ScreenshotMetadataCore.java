@@ -0,0 +1,33 @@
+package com.fentbuscoding.screenshotmetadata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared constants of the Minecraft-free part of the mod, and the {@link ClientPlatform} it runs on.
+ */
+public final class ScreenshotMetadataCore {
+    public static final String MOD_ID = "screenshotmetadata";
+    public static final String MOD_NAME = "Screenshot Metadata";
+    public static final Logger LOGGER = LoggerFactory.getLogger(MOD_NAME);
+
+    private static volatile ClientPlatform platform = ClientPlatform.defaults();
+
+    private ScreenshotMetadataCore() {
+    }
+
+    /**
+     * Installs the client the pipeline runs in. Called once, before any screenshot work.
+     */
+    public static void install(ClientPlatform clientPlatform) {
+        platform = clientPlatform;
+    }
+
+    public static ClientPlatform platform() {
+        return platform;
+    }
+
+    public static String modVersion() {
+        return platform.modVersion();
+    }
+}
@@ -0,0 +1,128 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The most recent frame times in a fixed ring of primitives. Recording a frame writes one slot and
+ * never allocates; percentiles are computed on demand, at capture time, over the last few seconds.
+ * Render thread only.
+ */
+public final class FrameTimeRing {
+    private static final FrameTimeRing INSTANCE = new FrameTimeRing(2048, TimeUnit.SECONDS.toNanos(5));
+    // A gap this long is a load screen or a stall of the whole client, not a rendered frame
+    private static final long MAX_FRAME_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final long[] frameNanos;
+    private final long[] sortScratch;
+    private final long windowNanos;
+    private long lastFrameStartNanos;
+    private int next;
+    private int size;
+
+    FrameTimeRing(int capacity, long windowNanos) {
+        this.frameNanos = new long[capacity];
+        this.sortScratch = new long[capacity];
+        this.windowNanos = windowNanos;
+    }
+
+    public static FrameTimeRing get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Called at the start of every frame with {@link System#nanoTime()}.
+     */
+    public void recordFrame(long nowNanos) {
+        long previous = lastFrameStartNanos;
+        lastFrameStartNanos = nowNanos;
+        if (previous == 0L) {
+            return;
+        }
+        long frame = nowNanos - previous;
+        if (frame <= 0L || frame > MAX_FRAME_NANOS) {
+            return;
+        }
+        frameNanos[next] = frame;
+        next = (next + 1) % frameNanos.length;
+        if (size < frameNanos.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Frame statistics over the most recent frames that fit in the window, or null before any frame was recorded.
+     */
+    public Stats stats() {
+        int count = 0;
+        long total = 0L;
+        int index = next;
+        while (count < size && total < windowNanos) {
+            index = index == 0 ? frameNanos.length - 1 : index - 1;
+            long frame = frameNanos[index];
+            sortScratch[count++] = frame;
+            total += frame;
+        }
+        if (count == 0) {
+            return null;
+        }
+        Arrays.sort(sortScratch, 0, count);
+        return new Stats(count, total,
+            percentile(count, 0.50), percentile(count, 0.95), percentile(count, 0.99), sortScratch[count - 1]);
+    }
+
+    // Nearest-rank percentile over the sorted scratch prefix
+    private long percentile(int count, double fraction) {
+        int rank = (int) Math.ceil(fraction * count);
+        return sortScratch[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    /**
+     * Frame-time distribution of a window of recent frames.
+     */
+    public static final class Stats {
+        private final int frames;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p95Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        Stats(int frames, long totalNanos, long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+            this.frames = frames;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p95Nanos = p95Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        public double getAverageFps() {
+            return totalNanos > 0L ? frames * 1e9 / totalNanos : 0.0;
+        }
+
+        public double getP50Millis() {
+            return p50Nanos / 1e6;
+        }
+
+        public double getP95Millis() {
+            return p95Nanos / 1e6;
+        }
+
+        public double getP99Millis() {
+            return p99Nanos / 1e6;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        public double getWindowMillis() {
+            return totalNanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import com.fentbuscoding.screenshotmetadata.metadata.JvmStats;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Reads heap, GC, thread and CPU figures for a capture. The MXBeans are looked up once; a sample
+ * is a handful of counter reads, with GC totals turned into deltas since the previous sample.
+ */
+public final class JvmStatsSampler {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = List.copyOf(ManagementFactory.getGarbageCollectorMXBeans());
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.OperatingSystemMXBean OS = operatingSystem();
+
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private static long lastGcCount;
+    private static long lastGcTimeMillis;
+    // CPU load is averaged over the time since the previous sample, starting from JVM launch
+    private static long lastCpuNanos;
+    private static long lastWallNanos = System.nanoTime()
+        - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+    private JvmStatsSampler() {
+    }
+
+    public static synchronized JvmStats sample() {
+        MemoryUsage heap = MEMORY.getHeapMemoryUsage();
+
+        long gcCount = 0L;
+        long gcTimeMillis = 0L;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            // -1 from a collector that does not track the figure
+            gcCount += Math.max(0L, collector.getCollectionCount());
+            gcTimeMillis += Math.max(0L, collector.getCollectionTime());
+        }
+        long countDelta = gcCount - lastGcCount;
+        long timeDelta = gcTimeMillis - lastGcTimeMillis;
+        lastGcCount = gcCount;
+        lastGcTimeMillis = gcTimeMillis;
+
+        return new JvmStats(heap.getUsed(), heap.getMax(), countDelta, timeDelta, THREADS.getThreadCount(), sampleCpuLoad());
+    }
+
+    /**
+     * Process CPU time over wall time across all cores since the previous sample. Derived from the
+     * CPU time counter because {@code getProcessCpuLoad()} re-reads /proc on each call, which is
+     * about a hundred times slower than everything else here.
+     */
+    private static double sampleCpuLoad() {
+        long cpuNanos = OS != null ? OS.getProcessCpuTime() : -1L;
+        if (cpuNanos < 0L) {
+            return -1.0;
+        }
+        long now = System.nanoTime();
+        long wallNanos = now - lastWallNanos;
+        double load = wallNanos > 0L ? (double) (cpuNanos - lastCpuNanos) / ((double) wallNanos * PROCESSORS) : -1.0;
+        lastCpuNanos = cpuNanos;
+        lastWallNanos = now;
+        return load < 0.0 ? -1.0 : Math.min(1.0, load);
+    }
+
+    private static com.sun.management.OperatingSystemMXBean operatingSystem() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        return bean instanceof com.sun.management.OperatingSystemMXBean extended ? extended : null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fentbuscoding.screenshotmetadata.config;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches the config directory and hot-reloads the config file when it is edited outside the game.
+ * Events are debounced because editors often write a file in several steps.
+ */
+public final class ConfigWatcher {
+    private static final long DEBOUNCE_MILLIS = 250L;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private ConfigWatcher() {
+    }
+
+    public static void start() {
+        if (!STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        Path configFile = ScreenshotMetadataConfig.getConfigPath();
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            configFile.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Config hot reload unavailable: {}", e.getMessage());
+            return;
+        }
+
+        Thread thread = new Thread(() -> watch(watchService, configFile.getFileName()), "Screenshot Metadata Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watch(WatchService watchService, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = containsFile(key, fileName);
+                // Swallow the burst of events a single save produces
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= containsFile(next, fileName);
+                }
+                if (relevant) {
+                    ScreenshotMetadataConfig.reloadFromDisk();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // shutting down
+        }
+    }
+
+    private static boolean containsFile(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                found = true;
+            }
+        }
+        key.reset();
+        return found;
+    }
+}
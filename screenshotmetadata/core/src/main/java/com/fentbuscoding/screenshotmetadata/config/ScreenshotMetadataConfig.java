@@ -0,0 +1,831 @@
+package com.fentbuscoding.screenshotmetadata.config;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.metadata.DuplicateMode;
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.PngTextChunks;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteOptions;
+import com.fentbuscoding.screenshotmetadata.thumbnail.ScreenshotThumbnails;
+import com.fentbuscoding.screenshotmetadata.thumbnail.ThumbnailCache;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class ScreenshotMetadataConfig {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String FILE_NAME = "screenshotmetadata.json";
+    private static final String SCHEMA_FIELD = "configSchemaVersion";
+    private static final int CURRENT_CONFIG_SCHEMA_VERSION = 1;
+
+    private static final Object LOCK = new Object();
+    // Orders file writes; taken without LOCK so publishing never waits for the disk
+    private static final Object WRITE_LOCK = new Object();
+    private static final long SAVE_DEBOUNCE_MILLIS = 400L;
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Screenshot Metadata Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Published snapshot; never mutated after publication, replaced wholesale on change
+    private static volatile ScreenshotMetadataConfig current;
+    // Last JSON read from or written to disk, so the watcher can ignore our own writes
+    private static String lastSyncedJson;
+    // Serialized versions handed to the writer, and the newest one on disk (or given up on)
+    private static long serializedVersion;
+    private static volatile long writtenVersion;
+    private static ScheduledFuture<?> pendingSave;
+
+    private boolean writePngMetadata = true;
+    private boolean writeXmpSidecar = true;
+    private boolean writeJsonSidecar = true;
+    // Also embed the XMP document in the PNG itself (iTXt "XML:com.adobe.xmp")
+    private boolean embedXmpInPng = false;
+    // Encode screenshots straight from the captured frame with metadata attached, instead of rewriting the saved file
+    private boolean encodeFromNativeImage = true;
+    private boolean includeWorldSeed = true;
+    private boolean privacyMode = false;
+    private boolean renameScreenshots = false;
+    private String screenshotNameTemplate = "{date}_{dimension}_X{x}_Z{z}";
+    // PNG text values at or above this many bytes are stored compressed (0 disables compression)
+    private int pngTextCompressionThreshold = PngTextChunks.DEFAULT_COMPRESSION_THRESHOLD;
+    // Re-encodes of images with at least this many pixels deflate on all cores (0 disables)
+    private long parallelEncodeMinPixels = PngWriteOptions.DEFAULT_PARALLEL_ENCODE_MIN_PIXELS;
+    // What to do when a screenshot's pixels match an earlier one: "off", "flag" or "hardlink"
+    private String duplicateHandling = DuplicateMode.FLAG.id;
+    // How far written files are flushed: "none", "file" (data before the rename) or "directory" (also the rename)
+    private String durability = Durability.FILE.id;
+    // Longest edge of generated thumbnails in pixels (0 disables thumbnails)
+    private int thumbnailSize = ScreenshotThumbnails.DEFAULT_MAX_SIZE;
+    // Size cap of the screenshots/.thumbnails cache before least recently used thumbnails are evicted
+    private int thumbnailCacheMaxMegabytes = (int) (ThumbnailCache.DEFAULT_MAX_BYTES / (1024 * 1024));
+    // How long quitting the game waits for in-flight screenshot jobs; unfinished ones resume next launch
+    private long shutdownDrainTimeoutMillis = 5_000L;
+    // Timelapse mode: automatic frames into screenshots/timelapse/<session>/ with a manifest.jsonl
+    private boolean timelapseEnabled = false;
+    // Time between timelapse frames (0 disables the timer)
+    private long timelapseIntervalMillis = 5_000L;
+    // Also take a frame after moving this many blocks (0 disables)
+    private int timelapseDistanceBlocks = 0;
+    // Frames captured but not yet written before further frames are dropped
+    private int timelapseMaxInFlightFrames = 3;
+    // Index PNGs that other mods or copies put into the screenshots folder: hash, thumbnail and sidecars
+    private boolean watchScreenshotsFolder = false;
+    // Most files the folder watcher indexes per minute, so a mass copy does not compete with the game
+    private int watchFolderMaxFilesPerMinute = 60;
+    // Longest a screenshot's file work waits for the game to stop stuttering before it runs anyway (0 never waits)
+    private long backgroundMaxDeferMillis = 3_000L;
+
+    // Metadata filtering options
+    private boolean includePerformanceMetrics = true;
+    private boolean includePlayerStatus = true;
+    private boolean includeEquipment = true;
+    private boolean includePotionEffects = true;
+    private boolean includeCoordinates = true;
+    private boolean includeBiomeInfo = true;
+    private boolean includeWeatherInfo = true;
+    private boolean includeModpackContext = true;
+    // Chunk, entity, block entity and particle counters in the JSON sidecar's "render" section
+    private boolean includeRenderStats = false;
+    // Heap, GC since the previous capture, thread count and process CPU load in the JSON sidecar's "jvm" section
+    private boolean includeJvmStats = false;
+    private String metadataProfile = MetadataProfile.FULL.id;
+    private int configSchemaVersion = CURRENT_CONFIG_SCHEMA_VERSION;
+
+    // Set once the instance is published; its setters then throw. Not serialized, so copies start editable
+    private transient boolean published;
+
+    /**
+     * Returns the current config snapshot. The returned instance is shared and read-only: its
+     * setters throw. Use {@link #edit()} and {@link #update(ScreenshotMetadataConfig)} to change settings.
+     */
+    public static ScreenshotMetadataConfig get() {
+        ScreenshotMetadataConfig snapshot = current;
+        if (snapshot == null) {
+            synchronized (LOCK) {
+                if (current == null) {
+                    load();
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns a private, mutable copy of the current config.
+     */
+    public static ScreenshotMetadataConfig edit() {
+        return get().copy();
+    }
+
+    /**
+     * Publishes a copy of the edited config. The file write is debounced onto a background
+     * thread, so a burst of edits costs one write; call {@link #flush()} to force it.
+     */
+    public static void update(ScreenshotMetadataConfig edited) {
+        synchronized (LOCK) {
+            publish(edited.copy());
+            if (pendingSave != null) {
+                pendingSave.cancel(false);
+            }
+            pendingSave = WRITER.schedule(ScreenshotMetadataConfig::save, SAVE_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes any debounced change now and returns once it is on disk.
+     */
+    public static void flush() {
+        ScheduledFuture<?> scheduled;
+        synchronized (LOCK) {
+            scheduled = pendingSave;
+            pendingSave = null;
+        }
+        if (scheduled == null) {
+            return;
+        }
+        if (scheduled.cancel(false)) {
+            save();
+            return;
+        }
+        try {
+            // Already running on the writer thread
+            scheduled.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            save();
+        }
+    }
+
+    public static void load() {
+        synchronized (LOCK) {
+            Path configPath = getConfigPath();
+            if (Files.exists(configPath)) {
+                try {
+                    String json = Files.readString(configPath);
+                    boolean migrated = publishFromJson(json);
+                    lastSyncedJson = json;
+                    if (migrated) {
+                        save();
+                    }
+                } catch (IOException | JsonSyntaxException | IllegalStateException e) {
+                    ScreenshotMetadataCore.LOGGER.warn("Failed to read config, using defaults: {}", e.getMessage());
+                    publish(new ScreenshotMetadataConfig());
+                }
+            } else {
+                publish(new ScreenshotMetadataConfig());
+                save();
+            }
+        }
+    }
+
+    /**
+     * Re-reads the config file after an external edit. Our own writes and unparsable
+     * intermediate states (an editor mid-save) are ignored.
+     */
+    static void reloadFromDisk() {
+        synchronized (LOCK) {
+            String json;
+            try {
+                json = Files.readString(getConfigPath());
+            } catch (IOException e) {
+                return;
+            }
+            if (json.equals(lastSyncedJson) || writtenVersion != serializedVersion) {
+                // Our own write, or one still in flight that will replace what was read
+                return;
+            }
+            try {
+                publishFromJson(json);
+                lastSyncedJson = json;
+                ScreenshotMetadataCore.LOGGER.info("Reloaded {} after external edit", FILE_NAME);
+            } catch (JsonSyntaxException | IllegalStateException e) {
+                ScreenshotMetadataCore.LOGGER.warn("Ignoring invalid {} edit: {}", FILE_NAME, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Serializes the current config and writes it to disk. Only the serialization holds the
+     * config lock; the file write is ordered by its own lock, and a write that a newer one has
+     * already overtaken is skipped.
+     */
+    public static void save() {
+        String json;
+        long version;
+        synchronized (LOCK) {
+            json = GSON.toJson(get());
+            version = ++serializedVersion;
+            lastSyncedJson = json;
+        }
+        synchronized (WRITE_LOCK) {
+            if (version <= writtenVersion) {
+                return;
+            }
+            try {
+                writeFile(json);
+            } finally {
+                writtenVersion = version;
+            }
+        }
+    }
+
+    private static void writeFile(String json) {
+        Path configPath = getConfigPath();
+        try {
+            Files.createDirectories(configPath.getParent());
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Failed to create config directory: {}", e.getMessage());
+        }
+        Path temp = null;
+        try {
+            // Write beside the file and rename over it, so readers never see a partial config
+            temp = Files.createTempFile(configPath.getParent(), FILE_NAME, ".tmp");
+            Files.writeString(temp, json);
+            try {
+                Files.move(temp, configPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException atomicFailure) {
+                Files.move(temp, configPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Failed to write config: {}", e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // moved or already gone
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses, migrates and publishes a config document.
+     *
+     * @return true if the document was migrated and should be written back
+     */
+    private static boolean publishFromJson(String json) {
+        JsonElement parsed = JsonParser.parseString(json);
+        JsonObject root = parsed != null && parsed.isJsonObject()
+            ? parsed.getAsJsonObject()
+            : new JsonObject();
+        int loadedSchemaVersion = readSchemaVersion(root);
+
+        ScreenshotMetadataConfig loadedConfig = GSON.fromJson(root, ScreenshotMetadataConfig.class);
+        if (loadedConfig == null) {
+            loadedConfig = new ScreenshotMetadataConfig();
+        }
+        boolean migrated = loadedConfig.migrate(loadedSchemaVersion);
+        publish(loadedConfig);
+        return migrated;
+    }
+
+    private static void publish(ScreenshotMetadataConfig config) {
+        config.normalize();
+        config.published = true;
+        current = config;
+    }
+
+    private ScreenshotMetadataConfig copy() {
+        return GSON.fromJson(GSON.toJsonTree(this), ScreenshotMetadataConfig.class);
+    }
+
+    private void checkEditable() {
+        if (published) {
+            throw new IllegalStateException("Published config is read-only; change a copy from edit() and pass it to update()");
+        }
+    }
+
+    static Path getConfigPath() {
+        return ScreenshotMetadataCore.platform().configDirectory().resolve(FILE_NAME);
+    }
+
+    public boolean isWritePngMetadata() {
+        return writePngMetadata;
+    }
+
+    public void setWritePngMetadata(boolean writePngMetadata) {
+        checkEditable();
+        this.writePngMetadata = writePngMetadata;
+    }
+
+    public boolean isWriteXmpSidecar() {
+        return writeXmpSidecar;
+    }
+
+    public void setWriteXmpSidecar(boolean writeXmpSidecar) {
+        checkEditable();
+        this.writeXmpSidecar = writeXmpSidecar;
+    }
+
+    public boolean isWriteJsonSidecar() {
+        return writeJsonSidecar;
+    }
+
+    public void setWriteJsonSidecar(boolean writeJsonSidecar) {
+        checkEditable();
+        this.writeJsonSidecar = writeJsonSidecar;
+    }
+
+    public boolean isEmbedXmpInPng() {
+        return embedXmpInPng;
+    }
+
+    public void setEmbedXmpInPng(boolean embedXmpInPng) {
+        checkEditable();
+        this.embedXmpInPng = embedXmpInPng;
+    }
+
+    public boolean isEncodeFromNativeImage() {
+        return encodeFromNativeImage;
+    }
+
+    public void setEncodeFromNativeImage(boolean encodeFromNativeImage) {
+        checkEditable();
+        this.encodeFromNativeImage = encodeFromNativeImage;
+    }
+
+    public boolean isIncludeWorldSeed() {
+        return includeWorldSeed;
+    }
+
+    public void setIncludeWorldSeed(boolean includeWorldSeed) {
+        checkEditable();
+        this.includeWorldSeed = includeWorldSeed;
+    }
+
+    public boolean isPrivacyMode() {
+        return privacyMode;
+    }
+
+    public void setPrivacyMode(boolean privacyMode) {
+        checkEditable();
+        this.privacyMode = privacyMode;
+    }
+
+    public boolean isRenameScreenshots() {
+        return renameScreenshots;
+    }
+
+    public void setRenameScreenshots(boolean renameScreenshots) {
+        checkEditable();
+        this.renameScreenshots = renameScreenshots;
+    }
+
+    public String getScreenshotNameTemplate() {
+        return screenshotNameTemplate;
+    }
+
+    public void setScreenshotNameTemplate(String screenshotNameTemplate) {
+        checkEditable();
+        this.screenshotNameTemplate = screenshotNameTemplate;
+    }
+
+    public int getPngTextCompressionThreshold() {
+        return pngTextCompressionThreshold;
+    }
+
+    public void setPngTextCompressionThreshold(int pngTextCompressionThreshold) {
+        checkEditable();
+        this.pngTextCompressionThreshold = pngTextCompressionThreshold;
+    }
+
+    public long getParallelEncodeMinPixels() {
+        return parallelEncodeMinPixels;
+    }
+
+    public void setParallelEncodeMinPixels(long parallelEncodeMinPixels) {
+        checkEditable();
+        this.parallelEncodeMinPixels = parallelEncodeMinPixels;
+    }
+
+    public String getDuplicateHandling() {
+        return duplicateHandling;
+    }
+
+    public void setDuplicateHandling(String duplicateHandling) {
+        checkEditable();
+        this.duplicateHandling = duplicateHandling;
+    }
+
+    public String getDurability() {
+        return durability;
+    }
+
+    public void setDurability(String durability) {
+        checkEditable();
+        this.durability = durability;
+    }
+
+    public int getThumbnailSize() {
+        return thumbnailSize;
+    }
+
+    public void setThumbnailSize(int thumbnailSize) {
+        checkEditable();
+        this.thumbnailSize = thumbnailSize;
+    }
+
+    public int getThumbnailCacheMaxMegabytes() {
+        return thumbnailCacheMaxMegabytes;
+    }
+
+    public void setThumbnailCacheMaxMegabytes(int thumbnailCacheMaxMegabytes) {
+        checkEditable();
+        this.thumbnailCacheMaxMegabytes = thumbnailCacheMaxMegabytes;
+    }
+
+    public long getShutdownDrainTimeoutMillis() {
+        return shutdownDrainTimeoutMillis;
+    }
+
+    public void setShutdownDrainTimeoutMillis(long shutdownDrainTimeoutMillis) {
+        checkEditable();
+        this.shutdownDrainTimeoutMillis = shutdownDrainTimeoutMillis;
+    }
+
+    public boolean isTimelapseEnabled() {
+        return timelapseEnabled;
+    }
+
+    public void setTimelapseEnabled(boolean timelapseEnabled) {
+        checkEditable();
+        this.timelapseEnabled = timelapseEnabled;
+    }
+
+    public long getTimelapseIntervalMillis() {
+        return timelapseIntervalMillis;
+    }
+
+    public void setTimelapseIntervalMillis(long timelapseIntervalMillis) {
+        checkEditable();
+        this.timelapseIntervalMillis = timelapseIntervalMillis;
+    }
+
+    public int getTimelapseDistanceBlocks() {
+        return timelapseDistanceBlocks;
+    }
+
+    public void setTimelapseDistanceBlocks(int timelapseDistanceBlocks) {
+        checkEditable();
+        this.timelapseDistanceBlocks = timelapseDistanceBlocks;
+    }
+
+    public int getTimelapseMaxInFlightFrames() {
+        return timelapseMaxInFlightFrames;
+    }
+
+    public void setTimelapseMaxInFlightFrames(int timelapseMaxInFlightFrames) {
+        checkEditable();
+        this.timelapseMaxInFlightFrames = timelapseMaxInFlightFrames;
+    }
+
+    public boolean isWatchScreenshotsFolder() {
+        return watchScreenshotsFolder;
+    }
+
+    public void setWatchScreenshotsFolder(boolean watchScreenshotsFolder) {
+        checkEditable();
+        this.watchScreenshotsFolder = watchScreenshotsFolder;
+    }
+
+    public int getWatchFolderMaxFilesPerMinute() {
+        return watchFolderMaxFilesPerMinute;
+    }
+
+    public void setWatchFolderMaxFilesPerMinute(int watchFolderMaxFilesPerMinute) {
+        checkEditable();
+        this.watchFolderMaxFilesPerMinute = watchFolderMaxFilesPerMinute;
+    }
+
+    public long getBackgroundMaxDeferMillis() {
+        return backgroundMaxDeferMillis;
+    }
+
+    public void setBackgroundMaxDeferMillis(long backgroundMaxDeferMillis) {
+        checkEditable();
+        this.backgroundMaxDeferMillis = backgroundMaxDeferMillis;
+    }
+
+    public boolean isIncludePerformanceMetrics() {
+        return includePerformanceMetrics;
+    }
+
+    public void setIncludePerformanceMetrics(boolean includePerformanceMetrics) {
+        checkEditable();
+        this.includePerformanceMetrics = includePerformanceMetrics;
+    }
+
+    public boolean isIncludePlayerStatus() {
+        return includePlayerStatus;
+    }
+
+    public void setIncludePlayerStatus(boolean includePlayerStatus) {
+        checkEditable();
+        this.includePlayerStatus = includePlayerStatus;
+    }
+
+    public boolean isIncludeEquipment() {
+        return includeEquipment;
+    }
+
+    public void setIncludeEquipment(boolean includeEquipment) {
+        checkEditable();
+        this.includeEquipment = includeEquipment;
+    }
+
+    public boolean isIncludePotionEffects() {
+        return includePotionEffects;
+    }
+
+    public void setIncludePotionEffects(boolean includePotionEffects) {
+        checkEditable();
+        this.includePotionEffects = includePotionEffects;
+    }
+
+    public boolean isIncludeCoordinates() {
+        return includeCoordinates;
+    }
+
+    public void setIncludeCoordinates(boolean includeCoordinates) {
+        checkEditable();
+        this.includeCoordinates = includeCoordinates;
+    }
+
+    public boolean isIncludeBiomeInfo() {
+        return includeBiomeInfo;
+    }
+
+    public void setIncludeBiomeInfo(boolean includeBiomeInfo) {
+        checkEditable();
+        this.includeBiomeInfo = includeBiomeInfo;
+    }
+
+    public boolean isIncludeWeatherInfo() {
+        return includeWeatherInfo;
+    }
+
+    public void setIncludeWeatherInfo(boolean includeWeatherInfo) {
+        checkEditable();
+        this.includeWeatherInfo = includeWeatherInfo;
+    }
+
+    public boolean isIncludeModpackContext() {
+        return includeModpackContext;
+    }
+
+    public void setIncludeModpackContext(boolean includeModpackContext) {
+        checkEditable();
+        this.includeModpackContext = includeModpackContext;
+    }
+
+    public boolean isIncludeRenderStats() {
+        return includeRenderStats;
+    }
+
+    public void setIncludeRenderStats(boolean includeRenderStats) {
+        checkEditable();
+        this.includeRenderStats = includeRenderStats;
+    }
+
+    public boolean isIncludeJvmStats() {
+        return includeJvmStats;
+    }
+
+    public void setIncludeJvmStats(boolean includeJvmStats) {
+        checkEditable();
+        this.includeJvmStats = includeJvmStats;
+    }
+
+    public MetadataProfile getMetadataProfile() {
+        return MetadataProfile.fromId(metadataProfile);
+    }
+
+    public void setMetadataProfile(MetadataProfile profile) {
+        checkEditable();
+        metadataProfile = profile == null ? MetadataProfile.FULL.id : profile.id;
+    }
+
+    public void applyProfile(MetadataProfile profile) {
+        checkEditable();
+        MetadataProfile resolved = profile == null ? MetadataProfile.FULL : profile;
+        switch (resolved) {
+            case FULL -> {
+                includeWorldSeed = true;
+                includePerformanceMetrics = true;
+                includePlayerStatus = true;
+                includeEquipment = true;
+                includePotionEffects = true;
+                includeCoordinates = true;
+                includeBiomeInfo = true;
+                includeWeatherInfo = true;
+                includeModpackContext = true;
+                privacyMode = false;
+            }
+            case LIGHTWEIGHT -> {
+                includeWorldSeed = false;
+                includePerformanceMetrics = false;
+                includePlayerStatus = false;
+                includeEquipment = false;
+                includePotionEffects = false;
+                includeCoordinates = true;
+                includeBiomeInfo = true;
+                includeWeatherInfo = false;
+                includeModpackContext = false;
+                privacyMode = false;
+            }
+            case PRIVACY -> {
+                includeWorldSeed = true;
+                includePerformanceMetrics = true;
+                includePlayerStatus = true;
+                includeEquipment = true;
+                includePotionEffects = true;
+                includeCoordinates = true;
+                includeBiomeInfo = true;
+                includeWeatherInfo = true;
+                includeModpackContext = false;
+                privacyMode = true;
+            }
+        }
+        metadataProfile = resolved.id;
+    }
+
+    private boolean migrate(int loadedSchemaVersion) {
+        boolean migrated = false;
+
+        if (loadedSchemaVersion < 1) {
+            metadataProfile = inferProfileIdFromCurrentSettings();
+            migrated = true;
+        }
+
+        if (configSchemaVersion != CURRENT_CONFIG_SCHEMA_VERSION) {
+            configSchemaVersion = CURRENT_CONFIG_SCHEMA_VERSION;
+            migrated = true;
+        }
+
+        return migrated;
+    }
+
+    private void normalize() {
+        if (metadataProfile == null || metadataProfile.isBlank()) {
+            metadataProfile = MetadataProfile.FULL.id;
+        } else {
+            MetadataProfile profile = MetadataProfile.fromId(metadataProfile);
+            if (profile == MetadataProfile.FULL && !"full".equalsIgnoreCase(metadataProfile.trim())) {
+                metadataProfile = MetadataProfile.FULL.id;
+            }
+        }
+
+        if (configSchemaVersion <= 0 || configSchemaVersion > CURRENT_CONFIG_SCHEMA_VERSION) {
+            configSchemaVersion = CURRENT_CONFIG_SCHEMA_VERSION;
+        }
+
+        if (pngTextCompressionThreshold < 0) {
+            pngTextCompressionThreshold = 0;
+        }
+
+        if (parallelEncodeMinPixels < 0) {
+            parallelEncodeMinPixels = 0;
+        }
+
+        duplicateHandling = DuplicateMode.fromId(duplicateHandling).id;
+        durability = Durability.fromId(durability).id;
+
+        if (thumbnailSize < 0) {
+            thumbnailSize = 0;
+        }
+
+        if (thumbnailCacheMaxMegabytes < 1) {
+            thumbnailCacheMaxMegabytes = 1;
+        }
+
+        if (shutdownDrainTimeoutMillis < 0) {
+            shutdownDrainTimeoutMillis = 0;
+        }
+
+        if (backgroundMaxDeferMillis < 0) {
+            backgroundMaxDeferMillis = 0;
+        }
+
+        if (timelapseIntervalMillis < 0) {
+            timelapseIntervalMillis = 0;
+        } else if (timelapseIntervalMillis > 0 && timelapseIntervalMillis < 50) {
+            // One frame per client tick at most
+            timelapseIntervalMillis = 50;
+        }
+
+        if (timelapseDistanceBlocks < 0) {
+            timelapseDistanceBlocks = 0;
+        }
+
+        if (timelapseMaxInFlightFrames < 1) {
+            timelapseMaxInFlightFrames = 1;
+        }
+
+        if (watchFolderMaxFilesPerMinute < 1) {
+            watchFolderMaxFilesPerMinute = 1;
+        }
+    }
+
+    private String inferProfileIdFromCurrentSettings() {
+        if (matchesProfile(MetadataProfile.FULL)) {
+            return MetadataProfile.FULL.id;
+        }
+        if (matchesProfile(MetadataProfile.LIGHTWEIGHT)) {
+            return MetadataProfile.LIGHTWEIGHT.id;
+        }
+        if (matchesProfile(MetadataProfile.PRIVACY)) {
+            return MetadataProfile.PRIVACY.id;
+        }
+        return MetadataProfile.CUSTOM.id;
+    }
+
+    private boolean matchesProfile(MetadataProfile profile) {
+        return switch (profile) {
+            case FULL -> includeWorldSeed
+                && includePerformanceMetrics
+                && includePlayerStatus
+                && includeEquipment
+                && includePotionEffects
+                && includeCoordinates
+                && includeBiomeInfo
+                && includeWeatherInfo
+                && includeModpackContext
+                && !privacyMode;
+            case LIGHTWEIGHT -> !includeWorldSeed
+                && !includePerformanceMetrics
+                && !includePlayerStatus
+                && !includeEquipment
+                && !includePotionEffects
+                && includeCoordinates
+                && includeBiomeInfo
+                && !includeWeatherInfo
+                && !includeModpackContext
+                && !privacyMode;
+            case PRIVACY -> includeWorldSeed
+                && includePerformanceMetrics
+                && includePlayerStatus
+                && includeEquipment
+                && includePotionEffects
+                && includeCoordinates
+                && includeBiomeInfo
+                && includeWeatherInfo
+                && !includeModpackContext
+                && privacyMode;
+            case CUSTOM -> false;
+        };
+    }
+
+    private static int readSchemaVersion(JsonObject root) {
+        if (root == null || !root.has(SCHEMA_FIELD)) {
+            return 0;
+        }
+        try {
+            return root.get(SCHEMA_FIELD).getAsInt();
+        } catch (Exception ignored) {
+            return 0;
+        }
+    }
+
+    public enum MetadataProfile {
+        FULL("full"),
+        LIGHTWEIGHT("lightweight"),
+        PRIVACY("privacy"),
+        CUSTOM("custom");
+
+        public final String id;
+
+        MetadataProfile(String id) {
+            this.id = id;
+        }
+
+        public static MetadataProfile fromId(String raw) {
+            if (raw == null || raw.isBlank()) {
+                return FULL;
+            }
+            for (MetadataProfile profile : values()) {
+                if (profile.id.equalsIgnoreCase(raw.trim())) {
+                    return profile;
+                }
+            }
+            return FULL;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Pixel source that decodes an image one horizontal band at a time, so re-encoding never holds
+ * more than a band of decoded pixels. Each band is a fresh region read, which costs extra decode
+ * time; it is the path for images too large to decode whole under {@link MemoryBudget}.
+ */
+final class BandedPixelSource implements ParallelPngEncoder.PixelSource, Closeable {
+    private static final int BAND_ROWS = 256;
+
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final int width;
+    private final int height;
+    private final boolean alpha;
+    // Guarded by this. Two bands stay decoded because encoder blocks straddle band boundaries.
+    private int currentStart = -1;
+    private ParallelPngEncoder.PixelSource current;
+    private int previousStart = -1;
+    private ParallelPngEncoder.PixelSource previous;
+
+    private BandedPixelSource(ImageInputStream input, ImageReader reader) throws IOException {
+        this.input = input;
+        this.reader = reader;
+        this.width = reader.getWidth(0);
+        this.height = reader.getHeight(0);
+        // Region reads decode into the reader's default destination type
+        this.alpha = reader.getImageTypes(0).next().getColorModel().hasAlpha();
+    }
+
+    static BandedPixelSource open(File file) throws IOException {
+        ImageInputStream input = ImageIO.createImageInputStream(file);
+        if (input == null) {
+            throw new IOException("Cannot open " + file.getName());
+        }
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for " + file.getName());
+            }
+            ImageReader reader = readers.next();
+            // Not forward-only: every band read starts from the beginning of the stream again
+            reader.setInput(input, false, true);
+            return new BandedPixelSource(input, reader);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the image dimensions from the header without decoding pixels, or null if unreadable.
+     */
+    static int[] readDimensions(File file) {
+        try (BandedPixelSource source = open(file)) {
+            return new int[] {source.width, source.height};
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean hasAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public synchronized void readRow(int y, byte[] target) {
+        int start = (y / BAND_ROWS) * BAND_ROWS;
+        if (start == previousStart) {
+            previous.readRow(y - start, target);
+            return;
+        }
+        if (start != currentStart) {
+            previous = current;
+            previousStart = currentStart;
+            current = decodeBand(start);
+            currentStart = start;
+        }
+        current.readRow(y - start, target);
+    }
+
+    private ParallelPngEncoder.PixelSource decodeBand(int start) {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, start, width, Math.min(BAND_ROWS, height - start)));
+        try {
+            BufferedImage decoded = reader.read(0, param);
+            return ParallelPngEncoder.fromImage(decoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode rows from " + start, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.dispose();
+        input.close();
+    }
+}
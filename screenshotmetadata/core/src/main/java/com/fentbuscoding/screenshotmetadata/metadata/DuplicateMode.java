@@ -0,0 +1,28 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+/**
+ * What to do when a new screenshot's image data matches one already in the folder.
+ */
+public enum DuplicateMode {
+    OFF("off"),
+    FLAG("flag"),
+    HARDLINK("hardlink");
+
+    public final String id;
+
+    DuplicateMode(String id) {
+        this.id = id;
+    }
+
+    public static DuplicateMode fromId(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return FLAG;
+        }
+        for (DuplicateMode mode : values()) {
+            if (mode.id.equalsIgnoreCase(raw.trim())) {
+                return mode;
+            }
+        }
+        return FLAG;
+    }
+}
@@ -0,0 +1,39 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+/**
+ * How hard the writers push a finished file to stable storage before reporting success.
+ */
+public enum Durability {
+    /** Leave flushing to the operating system. */
+    NONE("none"),
+    /** Flush the file's data before it is published. */
+    FILE("file"),
+    /** Flush the file's data and then the directory entry that publishes it. */
+    DIRECTORY("directory");
+
+    public final String id;
+
+    Durability(String id) {
+        this.id = id;
+    }
+
+    public boolean syncsFiles() {
+        return this != NONE;
+    }
+
+    public boolean syncsDirectories() {
+        return this == DIRECTORY;
+    }
+
+    public static Durability fromId(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return FILE;
+        }
+        for (Durability level : values()) {
+            if (level.id.equalsIgnoreCase(raw.trim())) {
+                return level;
+            }
+        }
+        return FILE;
+    }
+}
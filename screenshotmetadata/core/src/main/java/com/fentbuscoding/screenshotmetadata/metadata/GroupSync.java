@@ -0,0 +1,133 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Runs the metadata writers' fsyncs on one thread. Callers queue a flush and block until it is
+ * done; the thread drains everything queued meanwhile and flushes each distinct path once. Only
+ * directory flushes are actually shared: writers in one folder queue the same directory, so a
+ * burst needs one flush of it, while every written file is still flushed on its own.
+ */
+public final class GroupSync {
+    private static final int MAX_BATCH = 256;
+    private static final BlockingQueue<Request> QUEUE = new LinkedBlockingQueue<>();
+    private static volatile boolean directorySyncUnsupported;
+
+    static {
+        Thread syncer = new Thread(GroupSync::syncLoop, "Screenshot Metadata Sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    private GroupSync() {
+    }
+
+    /**
+     * Flushes the file's data if the durability level asks for it.
+     */
+    public static void syncFile(Path file, Durability durability) throws IOException {
+        if (durability != null && durability.syncsFiles()) {
+            await(new Request(file, false));
+        }
+    }
+
+    /**
+     * Flushes the directory holding the file, making its creation or rename durable, if the level asks for it.
+     */
+    public static void syncDirectoryOf(Path file, Durability durability) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (durability != null && durability.syncsDirectories() && directory != null && !directorySyncUnsupported) {
+            await(new Request(directory, true));
+        }
+    }
+
+    private static void await(Request request) throws IOException {
+        QUEUE.add(request);
+        try {
+            request.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for fsync of " + request.path);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause);
+        }
+    }
+
+    private static void syncLoop() {
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch, MAX_BATCH - 1);
+
+            // Files first, so a directory flush never publishes an entry whose data is still in flight
+            Map<Path, List<Request>> files = new LinkedHashMap<>();
+            Map<Path, List<Request>> directories = new LinkedHashMap<>();
+            for (Request request : batch) {
+                (request.directory ? directories : files)
+                    .computeIfAbsent(request.path, ignored -> new ArrayList<>())
+                    .add(request);
+            }
+            files.forEach((path, waiters) -> complete(waiters, force(path, false)));
+            directories.forEach((path, waiters) -> complete(waiters, force(path, true)));
+            batch.clear();
+        }
+    }
+
+    private static IOException force(Path path, boolean directory) {
+        try (FileChannel channel = FileChannel.open(path, directory ? StandardOpenOption.READ : StandardOpenOption.WRITE)) {
+            channel.force(!directory);
+            return null;
+        } catch (IOException e) {
+            if (directory) {
+                if (Files.isDirectory(path)) {
+                    // Not every platform can open a directory (Windows cannot); renames there are durable or not on their own
+                    directorySyncUnsupported = true;
+                    ScreenshotMetadataCore.LOGGER.debug("Directory fsync unavailable, skipping it from now on: {}", e.getMessage());
+                }
+                return null;
+            }
+            return e;
+        }
+    }
+
+    private static void complete(List<Request> waiters, IOException failure) {
+        for (Request waiter : waiters) {
+            if (failure == null) {
+                waiter.done.complete(null);
+            } else {
+                waiter.done.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static final class Request {
+        private final Path path;
+        private final boolean directory;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Request(Path path, boolean directory) {
+            this.path = path;
+            this.directory = directory;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import java.util.Collections;
+import java.util.List;
+
+public class JsonSidecarContext {
+    private final List<String> resourcePacks;
+    private final String shaderPack;
+    private final List<String> mods;
+    private final int modCount;
+    private final boolean modListTruncated;
+    private final boolean modpackIncluded;
+    private final RenderStats renderStats;
+    private final JvmStats jvmStats;
+
+    public JsonSidecarContext(List<String> resourcePacks,
+                              String shaderPack,
+                              List<String> mods,
+                              int modCount,
+                              boolean modListTruncated) {
+        this(resourcePacks, shaderPack, mods, modCount, modListTruncated, null, null);
+    }
+
+    public JsonSidecarContext(List<String> resourcePacks,
+                              String shaderPack,
+                              List<String> mods,
+                              int modCount,
+                              boolean modListTruncated,
+                              RenderStats renderStats,
+                              JvmStats jvmStats) {
+        this(true, resourcePacks, shaderPack, mods, modCount, modListTruncated, renderStats, jvmStats);
+    }
+
+    private JsonSidecarContext(boolean modpackIncluded,
+                               List<String> resourcePacks,
+                               String shaderPack,
+                               List<String> mods,
+                               int modCount,
+                               boolean modListTruncated,
+                               RenderStats renderStats,
+                               JvmStats jvmStats) {
+        this.modpackIncluded = modpackIncluded;
+        this.renderStats = renderStats;
+        this.jvmStats = jvmStats;
+        this.resourcePacks = resourcePacks == null ? Collections.emptyList() : resourcePacks;
+        this.shaderPack = shaderPack;
+        this.mods = mods == null ? Collections.emptyList() : mods;
+        this.modCount = modCount;
+        this.modListTruncated = modListTruncated;
+    }
+
+    /**
+     * Context without the modpack section, for captures that only add statistics.
+     */
+    public static JsonSidecarContext withoutModpack(RenderStats renderStats, JvmStats jvmStats) {
+        return new JsonSidecarContext(false, null, null, null, -1, false, renderStats, jvmStats);
+    }
+
+    public boolean isModpackIncluded() {
+        return modpackIncluded;
+    }
+
+    /**
+     * Render and world load counters, or null if they were not captured.
+     */
+    public RenderStats getRenderStats() {
+        return renderStats;
+    }
+
+    /**
+     * Heap, GC, thread and CPU figures, or null if they were not captured.
+     */
+    public JvmStats getJvmStats() {
+        return jvmStats;
+    }
+
+    public List<String> getResourcePacks() {
+        return resourcePacks;
+    }
+
+    public String getShaderPack() {
+        return shaderPack;
+    }
+
+    public List<String> getMods() {
+        return mods;
+    }
+
+    public int getModCount() {
+        return modCount;
+    }
+
+    public boolean isModListTruncated() {
+        return modListTruncated;
+    }
+}
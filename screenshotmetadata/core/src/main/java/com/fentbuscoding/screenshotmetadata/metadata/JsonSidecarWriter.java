@@ -1,12 +1,13 @@
 package com.fentbuscoding.screenshotmetadata.metadata;
 
-import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataMod;
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -35,8 +36,23 @@ public class JsonSidecarWriter {
      * @param context Optional extra context (resource packs, shaders, mod list)
      */
     public static void writeSidecarFile(File imageFile, Map<String, String> metadata, JsonSidecarContext context) {
+        writeSidecarFile(imageFile, metadata, context, Durability.NONE);
+    }
+
+    /**
+     * Creates a JSON sidecar file and flushes it as far as the durability level asks.
+     *
+     * @param imageFile The image file to create a sidecar for
+     * @param metadata The metadata to include in the JSON file
+     * @param context Optional extra context (resource packs, shaders, mod list)
+     * @param durability How far to flush the sidecar before returning
+     */
+    public static void writeSidecarFile(File imageFile,
+                                        Map<String, String> metadata,
+                                        JsonSidecarContext context,
+                                        Durability durability) {
         if (imageFile == null || !imageFile.exists()) {
-            ScreenshotMetadataMod.LOGGER.warn("Cannot create JSON sidecar for non-existent file: {}",
+            ScreenshotMetadataCore.LOGGER.warn("Cannot create JSON sidecar for non-existent file: {}",
                 imageFile != null ? imageFile.getName() : "null");
             return;
         }
@@ -48,16 +64,21 @@ public class JsonSidecarWriter {
             try (FileWriter writer = new FileWriter(jsonFile)) {
                 writer.write(jsonContent);
             }
+            GroupSync.syncFile(jsonFile.toPath(), durability);
+            GroupSync.syncDirectoryOf(jsonFile.toPath(), durability);
 
-            ScreenshotMetadataMod.LOGGER.debug("Created JSON sidecar file: {}", jsonFile.getName());
+            ScreenshotMetadataCore.LOGGER.debug("Created JSON sidecar file: {}", jsonFile.getName());
 
         } catch (IOException e) {
-            ScreenshotMetadataMod.LOGGER.error("Failed to create JSON sidecar file for {}: {}",
+            ScreenshotMetadataCore.LOGGER.error("Failed to create JSON sidecar file for {}: {}",
                 imageFile.getName(), e.getMessage());
         }
     }
 
-    private static File getJsonFile(File imageFile) {
+    /**
+     * Gets the JSON file path for a given image file
+     */
+    public static File getJsonFile(File imageFile) {
         String baseName = imageFile.getName();
         int dotIndex = baseName.lastIndexOf('.');
         if (dotIndex > 0) {
@@ -104,9 +125,15 @@ public class JsonSidecarWriter {
             appendTags(json, tags);
         }
 
-        if (context != null) {
+        if (context != null && context.isModpackIncluded()) {
             appendModpackContext(json, context);
         }
+        if (context != null && context.getRenderStats() != null) {
+            appendRenderStats(json, context.getRenderStats());
+        }
+        if (context != null && context.getJvmStats() != null) {
+            appendJvmStats(json, context.getJvmStats());
+        }
 
         json.append("\n");
         json.append("}\n");
@@ -175,6 +202,53 @@ public class JsonSidecarWriter {
         json.append("\n  }");
     }
 
+    private static void appendRenderStats(StringBuilder json, RenderStats stats) {
+        json.append(",\n");
+        json.append("  \"render\": {\n");
+
+        int fieldCount = 0;
+        fieldCount += appendKnownCount(json, "loadedChunks", stats.getLoadedChunks(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "chunksPendingRebuild", stats.getChunksPendingRebuild(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "renderedEntities", stats.getRenderedEntities(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "totalEntities", stats.getTotalEntities(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "blockEntities", stats.getBlockEntities(), fieldCount > 0);
+        appendKnownCount(json, "particles", stats.getParticles(), fieldCount > 0);
+        json.append("\n  }");
+    }
+
+    private static void appendJvmStats(StringBuilder json, JvmStats stats) {
+        json.append(",\n");
+        json.append("  \"jvm\": {\n");
+
+        int fieldCount = 0;
+        fieldCount += appendKnownCount(json, "heapUsedBytes", stats.getHeapUsedBytes(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "heapMaxBytes", stats.getHeapMaxBytes(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "gcCountSinceLastCapture", stats.getGcCount(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "gcTimeMsSinceLastCapture", stats.getGcTimeMillis(), fieldCount > 0);
+        fieldCount += appendKnownCount(json, "liveThreads", stats.getLiveThreads(), fieldCount > 0);
+        if (stats.getProcessCpuLoad() >= 0.0) {
+            if (fieldCount > 0) {
+                json.append(",\n");
+            }
+            json.append("    \"processCpuLoad\": ")
+                .append(String.format(Locale.ROOT, "%.4f", stats.getProcessCpuLoad()));
+        }
+        json.append("\n  }");
+    }
+
+    /**
+     * Appends a counter unless it is unknown (negative).
+     *
+     * @return 1 if the field was written, 0 otherwise
+     */
+    private static int appendKnownCount(StringBuilder json, String key, long value, boolean withComma) {
+        if (value < 0) {
+            return 0;
+        }
+        appendNumberField(json, key, value, withComma);
+        return 1;
+    }
+
     private static void appendTags(StringBuilder json, List<String> tags) {
         json.append(",\n");
         json.append("  \"tags\": [");
@@ -217,7 +291,7 @@ public class JsonSidecarWriter {
             .append("\"");
     }
 
-    private static void appendNumberField(StringBuilder json, String key, int value, boolean withComma) {
+    private static void appendNumberField(StringBuilder json, String key, long value, boolean withComma) {
         if (withComma) {
             json.append(",\n");
         }
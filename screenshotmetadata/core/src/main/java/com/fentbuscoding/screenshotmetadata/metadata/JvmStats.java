@@ -0,0 +1,61 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+/**
+ * JVM state at capture time. GC figures cover the time since the previous capture (since launch
+ * for the first one); values that the running JVM does not expose are -1.
+ */
+public class JvmStats {
+    private final long heapUsedBytes;
+    private final long heapMaxBytes;
+    private final long gcCount;
+    private final long gcTimeMillis;
+    private final int liveThreads;
+    private final double processCpuLoad;
+
+    public JvmStats(long heapUsedBytes,
+                    long heapMaxBytes,
+                    long gcCount,
+                    long gcTimeMillis,
+                    int liveThreads,
+                    double processCpuLoad) {
+        this.heapUsedBytes = heapUsedBytes;
+        this.heapMaxBytes = heapMaxBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.liveThreads = liveThreads;
+        this.processCpuLoad = processCpuLoad;
+    }
+
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public long getHeapMaxBytes() {
+        return heapMaxBytes;
+    }
+
+    /**
+     * Collections since the previous capture.
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Accumulated collection time since the previous capture.
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    public int getLiveThreads() {
+        return liveThreads;
+    }
+
+    /**
+     * Average CPU usage of the whole process since the previous capture, 0.0 to 1.0 across all cores.
+     */
+    public double getProcessCpuLoad() {
+        return processCpuLoad;
+    }
+}
@@ -0,0 +1,107 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for full-image decodes. Each decode reserves its estimated heap footprint
+ * before it starts; once the budget is used up further decodes wait, and callers that cannot
+ * wait take the streaming path instead. A single decode larger than the whole budget is only
+ * admitted while nothing else is reserved.
+ * The reserved total is published over JMX as {@code PipelineReservedBytes}.
+ */
+public final class MemoryBudget implements PipelineMemoryMXBean {
+    /** Heap cost of one decoded pixel (ARGB or ABGR bytes). */
+    public static final int BYTES_PER_PIXEL = 4;
+    private static final String OBJECT_NAME = "com.fentbuscoding.screenshotmetadata:type=MemoryBudget";
+    private static final MemoryBudget INSTANCE = new MemoryBudget(Runtime.getRuntime().maxMemory() / 4);
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not register memory budget MBean: {}", e.getMessage());
+        }
+    }
+
+    private final long capacityBytes;
+    private long reservedBytes;
+
+    MemoryBudget(long capacityBytes) {
+        this.capacityBytes = Math.max(1L, capacityBytes);
+    }
+
+    public static MemoryBudget get() {
+        return INSTANCE;
+    }
+
+    public static long estimateDecodeBytes(long width, long height) {
+        return Math.max(0L, width) * Math.max(0L, height) * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Reserves the bytes, waiting up to the timeout for earlier reservations to be released.
+     *
+     * @return The reservation to close once the decoded data is unreachable, or null if it was not admitted in time
+     */
+    public Reservation tryReserve(long bytes, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMillis));
+        synchronized (this) {
+            while (!fits(bytes)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            reservedBytes += bytes;
+            return new Reservation(bytes);
+        }
+    }
+
+    /**
+     * Whether a reservation of this size can ever be admitted alongside other work.
+     */
+    public boolean fitsAlongside(long bytes) {
+        return bytes <= capacityBytes;
+    }
+
+    @Override
+    public synchronized long getPipelineReservedBytes() {
+        return reservedBytes;
+    }
+
+    @Override
+    public long getPipelineBudgetBytes() {
+        return capacityBytes;
+    }
+
+    private boolean fits(long bytes) {
+        return reservedBytes == 0L || reservedBytes + bytes <= capacityBytes;
+    }
+
+    private synchronized void release(long bytes) {
+        reservedBytes -= bytes;
+        notifyAll();
+    }
+
+    public final class Reservation implements AutoCloseable {
+        private final long bytes;
+        private boolean released;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * PNG encoder that deflates the image data on all cores, pigz-style.
+ * Scanlines are filtered and compressed in independent blocks; every block after the first is
+ * primed with the last 32 KiB of the previous block's data so matches can still reach across the
+ * boundary. Blocks end on a sync flush, which lets the raw deflate streams be concatenated into one
+ * valid zlib stream whose Adler-32 is combined from the per-block checksums.
+ */
+public final class ParallelPngEncoder {
+    /**
+     * Same level ImageIO's PNG writer uses by default, so the two paths produce comparable sizes.
+     */
+    static final int IMAGE_COMPRESSION_LEVEL = 4;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] TYPE_IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] TYPE_IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] TYPE_IEND = {'I', 'E', 'N', 'D'};
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int TARGET_BLOCK_BYTES = 1024 * 1024;
+    private static final int ADLER_BASE = 65521;
+
+    private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static volatile ExecutorService executor;
+
+    private ParallelPngEncoder() {
+    }
+
+    /**
+     * Supplies 8-bit RGB or RGBA scanlines to the encoder. Implementations must allow
+     * concurrent {@link #readRow} calls for different rows.
+     */
+    public interface PixelSource {
+        int getWidth();
+
+        int getHeight();
+
+        boolean hasAlpha();
+
+        /**
+         * Copies row {@code y} into {@code target} as packed RGB or RGBA bytes.
+         */
+        void readRow(int y, byte[] target);
+    }
+
+    public static PixelSource fromImage(BufferedImage image) {
+        return new ImagePixelSource(image);
+    }
+
+    /**
+     * Encodes a complete PNG file with the given text entries placed before the image data.
+     *
+     * @param source Pixel rows to encode
+     * @param textEntries Text chunks to embed, in order
+     * @param textCompressionThreshold Compression threshold passed to {@link PngTextChunks}
+     * @param out Destination stream; not closed by this method
+     * @throws IOException if writing fails or the encode is interrupted
+     */
+    public static void encode(PixelSource source,
+                              Map<String, String> textEntries,
+                              int textCompressionThreshold,
+                              OutputStream out) throws IOException {
+        encode(source, textEntries, textCompressionThreshold, out, null);
+    }
+
+    /**
+     * Encodes like {@link #encode(PixelSource, Map, int, OutputStream)}, hashing the image data
+     * (IDAT payloads) as it is written. The trailer, if given, receives the hex XXH64 of that data
+     * and returns text entries to place right before IEND.
+     *
+     * @return The hex XXH64 of the IDAT payloads
+     * @throws IOException if writing fails or the encode is interrupted
+     */
+    public static String encode(PixelSource source,
+                                Map<String, String> textEntries,
+                                int textCompressionThreshold,
+                                OutputStream out,
+                                Function<String, Map<String, String>> trailer) throws IOException {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Cannot encode empty image");
+        }
+
+        int channels = source.hasAlpha() ? 4 : 3;
+        int stride = width * channels + 1;
+        int rowsPerBlock = Math.max(1, TARGET_BLOCK_BYTES / stride);
+        int blockCount = (height + rowsPerBlock - 1) / rowsPerBlock;
+
+        out.write(PNG_SIGNATURE);
+        writeHeader(out, width, height, channels == 4 ? 6 : 2);
+        writeTextEntries(out, textEntries, textCompressionThreshold);
+
+        ExecutorService pool = executor();
+        Xxh64 hasher = new Xxh64();
+        ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+        // Every submitted block is a party until its task has run, so the source outlives all reads
+        Phaser inFlight = new Phaser(1);
+        AtomicBoolean abort = new AtomicBoolean();
+        int nextBlock = 0;
+        long adler = 1L;
+        try {
+            for (int written = 0; written < blockCount; written++) {
+                // Keep a bounded window of blocks in flight so memory stays proportional to the core count
+                while (nextBlock < blockCount && pending.size() < THREADS * 2) {
+                    int startRow = nextBlock * rowsPerBlock;
+                    int endRow = Math.min(height, startRow + rowsPerBlock);
+                    boolean last = nextBlock == blockCount - 1;
+                    inFlight.register();
+                    pending.add(pool.submit(() -> {
+                        try {
+                            return compressBlock(source, channels, startRow, endRow, last, abort);
+                        } finally {
+                            inFlight.arriveAndDeregister();
+                        }
+                    }));
+                    nextBlock++;
+                }
+
+                Block block = pending.removeFirst().get();
+                adler = combineAdler32(adler, block.adler, block.uncompressedLength);
+
+                ByteArrayOutputStream idat = new ByteArrayOutputStream(block.data.length + 6);
+                if (written == 0) {
+                    idat.write(0x78);
+                    idat.write(0x5E);
+                }
+                idat.write(block.data, 0, block.data.length);
+                if (written == blockCount - 1) {
+                    PngTextChunks.writeInt(idat, (int) adler);
+                }
+                byte[] payload = idat.toByteArray();
+                hasher.update(payload, 0, payload.length);
+                PngTextChunks.writeChunk(out, TYPE_IDAT, payload, 0, payload.length);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("PNG encode interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IOException("PNG block compression failed: " + cause.getMessage(), cause);
+        } finally {
+            if (!pending.isEmpty()) {
+                abort.set(true);
+            }
+            // Blocks still running read the source, which may be a native buffer the caller frees
+            // once this returns. They stop at the next row once aborted, so this wait is short.
+            inFlight.arriveAndAwaitAdvance();
+        }
+
+        String contentHash = hasher.hexDigest();
+        if (trailer != null) {
+            writeTextEntries(out, trailer.apply(contentHash), textCompressionThreshold);
+        }
+        PngTextChunks.writeChunk(out, TYPE_IEND, new byte[0], 0, 0);
+        return contentHash;
+    }
+
+    private static void writeTextEntries(OutputStream out, Map<String, String> entries, int textCompressionThreshold) throws IOException {
+        if (entries == null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            PngTextChunks.writeTextChunk(out, entry.getKey(), entry.getValue(), textCompressionThreshold);
+        }
+    }
+
+    private static Block compressBlock(PixelSource source, int channels, int startRow, int endRow, boolean last,
+                                       AtomicBoolean abort) {
+        if (abort.get()) {
+            throw new CancellationException("PNG encode aborted");
+        }
+        int rowBytes = source.getWidth() * channels;
+        int stride = rowBytes + 1;
+
+        byte[] previous = new byte[rowBytes];
+        byte[] current = new byte[rowBytes];
+        byte[] filtered = new byte[stride];
+        byte[] scratch = new byte[rowBytes * 3];
+        Deflater deflater = new Deflater(IMAGE_COMPRESSION_LEVEL, true);
+        try {
+            if (startRow > 0) {
+                // Rebuild the tail of the previous block's filtered data as the preset dictionary
+                int dictionaryRows = Math.min(startRow, (DICTIONARY_SIZE + stride - 1) / stride);
+                byte[] dictionary = new byte[dictionaryRows * stride];
+                int firstRow = startRow - dictionaryRows;
+                if (firstRow > 0) {
+                    source.readRow(firstRow - 1, previous);
+                }
+                for (int y = firstRow; y < startRow; y++) {
+                    source.readRow(y, current);
+                    filterRow(current, previous, channels, scratch, filtered);
+                    System.arraycopy(filtered, 0, dictionary, (y - firstRow) * stride, stride);
+                    byte[] swap = previous;
+                    previous = current;
+                    current = swap;
+                }
+                int offset = Math.max(0, dictionary.length - DICTIONARY_SIZE);
+                deflater.setDictionary(dictionary, offset, dictionary.length - offset);
+            }
+
+            Adler32 adler = new Adler32();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(1024, (endRow - startRow) * stride / 4));
+            byte[] buffer = new byte[64 * 1024];
+            for (int y = startRow; y < endRow; y++) {
+                if (abort.get()) {
+                    throw new CancellationException("PNG encode aborted");
+                }
+                source.readRow(y, current);
+                filterRow(current, previous, channels, scratch, filtered);
+                adler.update(filtered, 0, stride);
+                deflater.setInput(filtered, 0, stride);
+                while (!deflater.needsInput()) {
+                    int count = deflater.deflate(buffer, 0, buffer.length, Deflater.NO_FLUSH);
+                    compressed.write(buffer, 0, count);
+                }
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, count);
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+
+            return new Block(compressed.toByteArray(), adler.getValue(), (long) (endRow - startRow) * stride);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Picks the filter with the smallest sum of absolute values, the heuristic libpng uses.
+     * Average is skipped because it rarely wins on rendered frames and costs a full extra pass.
+     * Candidates are written into {@code scratch} (three rows of {@code row.length}) in the same pass.
+     */
+    private static void filterRow(byte[] row, byte[] previous, int bpp, byte[] scratch, byte[] target) {
+        int length = row.length;
+        int upOffset = length;
+        int paethOffset = length * 2;
+        long noneSum = 0;
+        long subSum = 0;
+        long upSum = 0;
+        long paethSum = 0;
+
+        for (int i = 0; i < bpp; i++) {
+            int raw = row[i] & 0xFF;
+            int up = previous[i] & 0xFF;
+            byte upValue = (byte) (raw - up);
+            noneSum += raw;
+            subSum += raw;
+            upSum += Math.abs(upValue);
+            paethSum += Math.abs(upValue);
+            scratch[i] = (byte) raw;
+            scratch[upOffset + i] = upValue;
+            scratch[paethOffset + i] = upValue;
+        }
+        for (int i = bpp; i < length; i++) {
+            int raw = row[i] & 0xFF;
+            int left = row[i - bpp] & 0xFF;
+            int up = previous[i] & 0xFF;
+            int upLeft = previous[i - bpp] & 0xFF;
+            byte subValue = (byte) (raw - left);
+            byte upValue = (byte) (raw - up);
+            byte paethValue = (byte) (raw - paeth(left, up, upLeft));
+            noneSum += raw;
+            subSum += Math.abs(subValue);
+            upSum += Math.abs(upValue);
+            paethSum += Math.abs(paethValue);
+            scratch[i] = subValue;
+            scratch[upOffset + i] = upValue;
+            scratch[paethOffset + i] = paethValue;
+        }
+
+        int filter = 0;
+        long best = noneSum;
+        if (subSum < best) {
+            filter = 1;
+            best = subSum;
+        }
+        if (upSum < best) {
+            filter = 2;
+            best = upSum;
+        }
+        if (paethSum < best) {
+            filter = 4;
+        }
+
+        target[0] = (byte) filter;
+        switch (filter) {
+            case 1 -> System.arraycopy(scratch, 0, target, 1, length);
+            case 2 -> System.arraycopy(scratch, upOffset, target, 1, length);
+            case 4 -> System.arraycopy(scratch, paethOffset, target, 1, length);
+            default -> System.arraycopy(row, 0, target, 1, length);
+        }
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    /**
+     * Port of zlib's adler32_combine: the checksum of A followed by B from the checksums of each part.
+     */
+    static long combineAdler32(long adlerA, long adlerB, long lengthB) {
+        long rem = lengthB % ADLER_BASE;
+        long sum1 = adlerA & 0xFFFF;
+        long sum2 = (rem * sum1) % ADLER_BASE;
+        sum1 += (adlerB & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((adlerA >>> 16) & 0xFFFF) + ((adlerB >>> 16) & 0xFFFF) + ADLER_BASE - rem;
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum2 >= ((long) ADLER_BASE << 1)) {
+            sum2 -= ((long) ADLER_BASE << 1);
+        }
+        if (sum2 >= ADLER_BASE) {
+            sum2 -= ADLER_BASE;
+        }
+        return sum1 | (sum2 << 16);
+    }
+
+    private static void writeHeader(OutputStream out, int width, int height, int colorType) throws IOException {
+        byte[] header = new byte[13];
+        header[0] = (byte) (width >>> 24);
+        header[1] = (byte) (width >>> 16);
+        header[2] = (byte) (width >>> 8);
+        header[3] = (byte) width;
+        header[4] = (byte) (height >>> 24);
+        header[5] = (byte) (height >>> 16);
+        header[6] = (byte) (height >>> 8);
+        header[7] = (byte) height;
+        header[8] = 8; // bit depth
+        header[9] = (byte) colorType;
+        // compression, filter and interlace methods stay 0
+        PngTextChunks.writeChunk(out, TYPE_IHDR, header, 0, header.length);
+    }
+
+    private static ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (ParallelPngEncoder.class) {
+                current = executor;
+                if (current == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(THREADS, runnable -> {
+                        Thread thread = new Thread(runnable, "Screenshot Metadata Encoder #" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private record Block(byte[] data, long adler, long uncompressedLength) {
+    }
+
+    private static final class ImagePixelSource implements PixelSource {
+        private final BufferedImage image;
+        private final boolean alpha;
+        private final byte[] bytes;
+
+        private ImagePixelSource(BufferedImage image) {
+            this.image = image;
+            this.alpha = image.getColorModel().hasAlpha();
+            int type = image.getType();
+            if ((type == BufferedImage.TYPE_4BYTE_ABGR || type == BufferedImage.TYPE_3BYTE_BGR)
+                && image.getRaster().getDataBuffer() instanceof DataBufferByte buffer
+                && image.getRaster().getParent() == null) {
+                this.bytes = buffer.getData();
+            } else {
+                this.bytes = null;
+            }
+        }
+
+        @Override
+        public int getWidth() {
+            return image.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return image.getHeight();
+        }
+
+        @Override
+        public boolean hasAlpha() {
+            return alpha;
+        }
+
+        @Override
+        public void readRow(int y, byte[] target) {
+            int width = image.getWidth();
+            if (bytes != null) {
+                // Packed ABGR / BGR rasters: swizzle straight from the backing array
+                int sourceChannels = image.getType() == BufferedImage.TYPE_4BYTE_ABGR ? 4 : 3;
+                int src = y * width * sourceChannels;
+                int dst = 0;
+                for (int x = 0; x < width; x++) {
+                    if (sourceChannels == 4) {
+                        target[dst++] = bytes[src + 3];
+                        target[dst++] = bytes[src + 2];
+                        target[dst++] = bytes[src + 1];
+                        target[dst++] = bytes[src];
+                    } else {
+                        target[dst++] = bytes[src + 2];
+                        target[dst++] = bytes[src + 1];
+                        target[dst++] = bytes[src];
+                    }
+                    src += sourceChannels;
+                }
+                return;
+            }
+
+            int[] argb = image.getRGB(0, y, width, 1, null, 0, width);
+            int dst = 0;
+            for (int pixel : argb) {
+                target[dst++] = (byte) (pixel >>> 16);
+                target[dst++] = (byte) (pixel >>> 8);
+                target[dst++] = (byte) pixel;
+                if (alpha) {
+                    target[dst++] = (byte) (pixel >>> 24);
+                }
+            }
+        }
+    }
+}
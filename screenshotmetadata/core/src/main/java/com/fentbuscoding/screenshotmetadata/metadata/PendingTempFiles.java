@@ -0,0 +1,51 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temp files that are still being written. Anything left here when the client stops belongs
+ * to a write that will never finish and is deleted instead of being left next to the screenshots.
+ */
+public final class PendingTempFiles {
+    private static final Set<Path> PENDING = ConcurrentHashMap.newKeySet();
+
+    private PendingTempFiles() {
+    }
+
+    public static Path register(Path tempFile) {
+        PENDING.add(tempFile);
+        return tempFile;
+    }
+
+    public static void release(Path tempFile) {
+        if (tempFile != null) {
+            PENDING.remove(tempFile);
+        }
+    }
+
+    /**
+     * Deletes every registered temp file.
+     *
+     * @return The number of files that were deleted
+     */
+    public static int deleteAll() {
+        int deleted = 0;
+        for (Path tempFile : PENDING) {
+            PENDING.remove(tempFile);
+            try {
+                if (Files.deleteIfExists(tempFile)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                ScreenshotMetadataCore.LOGGER.warn("Could not delete temp file {}: {}", tempFile, e.getMessage());
+            }
+        }
+        return deleted;
+    }
+}
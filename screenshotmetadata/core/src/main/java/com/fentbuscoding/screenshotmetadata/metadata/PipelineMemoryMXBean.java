@@ -0,0 +1,16 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+/**
+ * JMX view of {@link MemoryBudget}, registered as {@code com.fentbuscoding.screenshotmetadata:type=MemoryBudget}.
+ */
+public interface PipelineMemoryMXBean {
+    /**
+     * Heap bytes currently reserved by admitted image decodes.
+     */
+    long getPipelineReservedBytes();
+
+    /**
+     * Total bytes decodes may reserve before further ones queue.
+     */
+    long getPipelineBudgetBytes();
+}
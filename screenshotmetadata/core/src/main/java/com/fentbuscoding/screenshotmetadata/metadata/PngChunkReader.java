@@ -0,0 +1,131 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal sequential reader over a PNG chunk stream. Chunk payloads are streamed through a
+ * fixed buffer, never materialized, unless a caller explicitly asks for them.
+ */
+final class PngChunkReader {
+    static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final InputStream in;
+    private final byte[] header = new byte[8];
+    private final byte[] buffer;
+    private long length;
+    private String type;
+
+    PngChunkReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Reads and validates the PNG signature.
+     */
+    byte[] readSignature() throws IOException {
+        byte[] signature = in.readNBytes(PNG_SIGNATURE.length);
+        if (!Arrays.equals(signature, PNG_SIGNATURE)) {
+            throw new PngFormatException("missing PNG signature");
+        }
+        return signature;
+    }
+
+    /**
+     * Advances to the next chunk header.
+     *
+     * @return false at a clean end of stream
+     */
+    boolean next() throws IOException {
+        int headerBytes = in.readNBytes(header, 0, header.length);
+        if (headerBytes == 0) {
+            return false;
+        }
+        if (headerBytes < header.length) {
+            throw new PngFormatException("truncated chunk header");
+        }
+        length = ((header[0] & 0xFFL) << 24)
+            | ((header[1] & 0xFFL) << 16)
+            | ((header[2] & 0xFFL) << 8)
+            | (header[3] & 0xFFL);
+        if (length > Integer.MAX_VALUE) {
+            throw new PngFormatException("invalid chunk length " + length);
+        }
+        type = new String(header, 4, 4, StandardCharsets.ISO_8859_1);
+        return true;
+    }
+
+    String type() {
+        return type;
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * Writes the current chunk (header, payload and CRC) to {@code out}, feeding the payload to
+     * {@code hasher} when one is given.
+     */
+    void copyTo(OutputStream out, Xxh64 hasher) throws IOException {
+        out.write(header);
+        transfer(length, out, hasher);
+        transfer(4, out, null);
+    }
+
+    /**
+     * Skips the current chunk, feeding the payload to {@code hasher} when one is given.
+     */
+    void skip(Xxh64 hasher) throws IOException {
+        transfer(length, null, hasher);
+        transfer(4, null, null);
+    }
+
+    /**
+     * Reads the current chunk's payload into memory and skips its CRC.
+     */
+    byte[] readPayload() throws IOException {
+        byte[] payload = in.readNBytes((int) length);
+        if (payload.length < length) {
+            throw new PngFormatException("truncated chunk data", new EOFException());
+        }
+        transfer(4, null, null);
+        return payload;
+    }
+
+    /**
+     * Reads the whole current chunk (header, payload and CRC) into memory, for small chunks that
+     * are inspected before deciding whether to copy them.
+     */
+    byte[] readChunk() throws IOException {
+        byte[] chunk = new byte[header.length + (int) length + 4];
+        System.arraycopy(header, 0, chunk, 0, header.length);
+        int read = in.readNBytes(chunk, header.length, chunk.length - header.length);
+        if (read < chunk.length - header.length) {
+            throw new PngFormatException("truncated chunk data", new EOFException());
+        }
+        return chunk;
+    }
+
+    private void transfer(long count, OutputStream out, Xxh64 hasher) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new PngFormatException("truncated chunk data", new EOFException());
+            }
+            if (hasher != null) {
+                hasher.update(buffer, 0, read);
+            }
+            if (out != null) {
+                out.write(buffer, 0, read);
+            }
+            remaining -= read;
+        }
+    }
+}
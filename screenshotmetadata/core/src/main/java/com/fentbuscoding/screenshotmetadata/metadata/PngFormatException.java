@@ -0,0 +1,18 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import java.io.IOException;
+
+/**
+ * Signals that a file is not a PNG chunk stream that can be read or spliced chunk by chunk.
+ */
+class PngFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    PngFormatException(String message) {
+        super(message);
+    }
+
+    PngFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,621 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Handles writing metadata to PNG files as text chunks.
+ * The original chunk stream is copied as-is and the text chunks are spliced in before the image data,
+ * so the pixels are never decoded. Files that cannot be parsed as a chunk stream fall back to an
+ * ImageIO re-encode.
+ */
+public class PngMetadataWriter {
+    public static final String CONTENT_HASH_KEY = "ContentHash";
+    public static final String DUPLICATE_OF_KEY = "DuplicateOf";
+    private static final String CONTENT_HASH_PREFIX = "xxh64:";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Text chunks up to this size are read to check their keyword; larger ones are copied untouched
+    private static final int MAX_REPLACEABLE_TEXT_CHUNK = 1024 * 1024;
+    // How long a full decode queues for heap budget before falling back to banded re-encoding
+    private static final long DECODE_ADMISSION_WAIT_MILLIS = 2_000L;
+
+    /**
+     * Writes metadata to a PNG file as text chunks using the default write options.
+     *
+     * @param file The PNG file to add metadata to
+     * @param metadata Map of key-value pairs to embed
+     * @throws IOException if file operations fail
+     */
+    public static PngWriteResult writeMetadata(File file, Map<String, String> metadata) throws IOException {
+        return writeMetadata(file, metadata, PngWriteOptions.defaults());
+    }
+
+    /**
+     * Writes metadata to a PNG file as text chunks.
+     * Creates a temporary file and replaces the original to ensure data integrity.
+     * While the image data is copied it is hashed, and the hash is recorded in the file
+     * and checked against the folder's duplicate index.
+     * 
+     * @param file The PNG file to add metadata to
+     * @param metadata Map of key-value pairs to embed
+     * @param options Chunk encoding and duplicate handling options
+     * @return The content hash and duplicate information gathered during the write
+     * @throws IOException if file operations fail
+     */
+    public static PngWriteResult writeMetadata(File file, Map<String, String> metadata, PngWriteOptions options) throws IOException {
+        if (file == null || metadata == null) {
+            throw new IllegalArgumentException("File and metadata must not be null");
+        }
+        if (!file.exists() || !file.getName().toLowerCase().endsWith(".png")) {
+            throw new IllegalArgumentException("File must be an existing PNG file: " + file.getPath());
+        }
+        if (metadata.isEmpty()) {
+            ScreenshotMetadataCore.LOGGER.debug("No metadata provided for {} - skipping write", file.getName());
+            return PngWriteResult.empty();
+        }
+        PngWriteOptions resolvedOptions = options != null ? options : PngWriteOptions.defaults();
+        ScreenshotHashIndex hashIndex = resolvedOptions.getDuplicateMode() != DuplicateMode.OFF
+            ? ScreenshotHashIndex.forDirectory(file.getParentFile())
+            : null;
+
+        ScreenshotMetadataCore.LOGGER.debug("Writing PNG metadata to: {} ({} entries)", file.getName(), metadata.size());
+
+        Path tempPath = PendingTempFiles.register(Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp"));
+        boolean moved = false;
+        PngWriteResult result;
+
+        try {
+            Map<String, String> entries = buildTextEntries(metadata, resolvedOptions);
+            try {
+                result = spliceTextChunks(file, tempPath, entries, resolvedOptions, hashIndex);
+            } catch (PngFormatException formatProblem) {
+                ScreenshotMetadataCore.LOGGER.debug("Cannot splice chunks into {} ({}), re-encoding instead",
+                    file.getName(), formatProblem.getMessage());
+                reencode(file, tempPath, entries, resolvedOptions);
+                result = PngWriteResult.empty();
+            }
+
+            if (resolvedOptions.getDuplicateMode() == DuplicateMode.HARDLINK && result.getDuplicateOf() != null) {
+                PngWriteResult linked = replaceWithHardLink(file, tempPath, result);
+                if (linked != null) {
+                    GroupSync.syncDirectoryOf(file.toPath(), resolvedOptions.getDurability());
+                    ScreenshotMetadataCore.LOGGER.info("Screenshot {} is identical to {} - stored as a hard link",
+                        file.getName(), result.getDuplicateOf());
+                    return linked;
+                }
+            }
+
+            // The rename must not publish data that is not on disk yet
+            GroupSync.syncFile(tempPath, resolvedOptions.getDurability());
+
+            // Replace original file with the updated one, prefer atomic move when supported
+            try {
+                Files.move(tempPath, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException atomicFailure) {
+                Files.move(tempPath, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            GroupSync.syncDirectoryOf(file.toPath(), resolvedOptions.getDurability());
+
+        } catch (Exception e) {
+            String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            ScreenshotMetadataCore.LOGGER.debug("Failed to write PNG metadata to {}: {}", file.getName(), reason, e);
+            throw new IOException("Failed to write PNG metadata: " + reason, e);
+        } finally {
+            if (!moved) {
+                try {
+                    Files.deleteIfExists(tempPath);
+                } catch (IOException cleanupFailure) {
+                    ScreenshotMetadataCore.LOGGER.warn("Could not delete temp file {}: {}", tempPath, cleanupFailure.getMessage());
+                }
+            }
+            PendingTempFiles.release(tempPath);
+        }
+
+        if (hashIndex != null && result.getContentHash() != null) {
+            hashIndex.record(result.getContentHash(), file);
+        }
+        if (result.getDuplicateOf() != null) {
+            ScreenshotMetadataCore.LOGGER.info("Screenshot {} is identical to {}", file.getName(), result.getDuplicateOf());
+        }
+
+        ScreenshotMetadataCore.LOGGER.debug("Successfully wrote PNG metadata to: {}", file.getName());
+        return result;
+    }
+
+    /**
+     * Encodes pixels that are already in memory straight into a PNG file with the metadata attached,
+     * so the image is written once instead of written, read back and rewritten. The result matches
+     * what {@link #writeMetadata} produces for the same pixels: text chunks before the image data,
+     * content hash and duplicate entries before IEND.
+     *
+     * @param file The PNG file to create or replace
+     * @param pixels Source rows, read concurrently by the encoder
+     * @param metadata Map of key-value pairs to embed
+     * @param options Chunk encoding, duplicate handling and durability options
+     * @return The content hash and duplicate information gathered during the write
+     * @throws IOException if encoding or file operations fail
+     */
+    public static PngWriteResult writeImage(File file,
+                                            ParallelPngEncoder.PixelSource pixels,
+                                            Map<String, String> metadata,
+                                            PngWriteOptions options) throws IOException {
+        if (file == null || pixels == null || metadata == null) {
+            throw new IllegalArgumentException("File, pixels and metadata must not be null");
+        }
+        PngWriteOptions resolvedOptions = options != null ? options : PngWriteOptions.defaults();
+        ScreenshotHashIndex hashIndex = resolvedOptions.getDuplicateMode() != DuplicateMode.OFF
+            ? ScreenshotHashIndex.forDirectory(file.getAbsoluteFile().getParentFile())
+            : null;
+
+        Path tempPath = PendingTempFiles.register(Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp"));
+        boolean moved = false;
+        PngWriteResult result;
+        try {
+            String[] duplicateOf = new String[1];
+            String contentHash;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath), COPY_BUFFER_SIZE)) {
+                contentHash = CONTENT_HASH_PREFIX + ParallelPngEncoder.encode(pixels, buildTextEntries(metadata, resolvedOptions),
+                    resolvedOptions.getTextCompressionThreshold(), out, hex -> {
+                        Map<String, String> hashEntries = new LinkedHashMap<>();
+                        hashEntries.put(CONTENT_HASH_KEY, CONTENT_HASH_PREFIX + hex);
+                        File duplicate = hashIndex != null ? hashIndex.findDuplicate(CONTENT_HASH_PREFIX + hex, file) : null;
+                        if (duplicate != null) {
+                            duplicateOf[0] = duplicate.getName();
+                            hashEntries.put(DUPLICATE_OF_KEY, duplicateOf[0]);
+                        }
+                        return hashEntries;
+                    });
+            }
+            result = new PngWriteResult(contentHash, duplicateOf[0], false);
+
+            if (resolvedOptions.getDuplicateMode() == DuplicateMode.HARDLINK && result.getDuplicateOf() != null) {
+                PngWriteResult linked = replaceWithHardLink(file, tempPath, result);
+                if (linked != null) {
+                    GroupSync.syncDirectoryOf(file.toPath(), resolvedOptions.getDurability());
+                    return linked;
+                }
+            }
+
+            GroupSync.syncFile(tempPath, resolvedOptions.getDurability());
+            try {
+                Files.move(tempPath, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException atomicFailure) {
+                Files.move(tempPath, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            GroupSync.syncDirectoryOf(file.toPath(), resolvedOptions.getDurability());
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(tempPath);
+            }
+            PendingTempFiles.release(tempPath);
+        }
+
+        if (hashIndex != null) {
+            hashIndex.record(result.getContentHash(), file);
+        }
+        return result;
+    }
+
+    /**
+     * Hashes the image data (IDAT payloads) of a PNG file the same way {@link #writeMetadata} does.
+     *
+     * @return The hash as {@code xxh64:<hex>}
+     * @throws IOException if the file cannot be read or is not a PNG chunk stream
+     */
+    public static String hashImageData(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), COPY_BUFFER_SIZE)) {
+            PngChunkReader reader = new PngChunkReader(in, COPY_BUFFER_SIZE);
+            reader.readSignature();
+            Xxh64 hasher = new Xxh64();
+            while (reader.next()) {
+                if ("IEND".equals(reader.type())) {
+                    return CONTENT_HASH_PREFIX + hasher.hexDigest();
+                }
+                reader.skip("IDAT".equals(reader.type()) ? hasher : null);
+            }
+            throw new PngFormatException("missing IEND chunk");
+        }
+    }
+
+    /**
+     * Whether the PNG already carries the {@code ContentHash} text chunk this class writes, which
+     * marks a file the mod has already processed.
+     *
+     * @throws IOException if the file cannot be read or is not a PNG chunk stream
+     */
+    public static boolean hasContentHash(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), COPY_BUFFER_SIZE)) {
+            PngChunkReader reader = new PngChunkReader(in, COPY_BUFFER_SIZE);
+            reader.readSignature();
+            while (reader.next()) {
+                if (PngTextChunks.isTextChunk(reader.type()) && reader.length() <= MAX_REPLACEABLE_TEXT_CHUNK) {
+                    byte[] chunk = reader.readChunk();
+                    if (CONTENT_HASH_KEY.equals(PngTextChunks.readKeyword(chunk, 8, (int) reader.length()))) {
+                        return true;
+                    }
+                } else {
+                    reader.skip(null);
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Looks up the content hash and earlier duplicate of a PNG without writing anything. Gives the
+     * same values {@link #writeMetadata} embeds, so sidecars can be written while the PNG is.
+     *
+     * @throws IOException if the file cannot be read or is not a PNG chunk stream
+     */
+    public static PngWriteResult inspect(File file, DuplicateMode duplicateMode) throws IOException {
+        String contentHash = hashImageData(file);
+        File duplicate = duplicateMode != DuplicateMode.OFF
+            ? ScreenshotHashIndex.forDirectory(file.getParentFile()).findDuplicate(contentHash, file)
+            : null;
+        return new PngWriteResult(contentHash, duplicate != null ? duplicate.getName() : null, false);
+    }
+
+    /**
+     * Copies the PNG chunk stream from source to target and inserts the text chunks right before
+     * the first IDAT chunk. Chunk payloads are copied verbatim, so no pixel data is decoded.
+     * The IDAT payloads are hashed on the way through; the hash (and any duplicate it points at)
+     * is written as a final text chunk before IEND.
+     * Existing text chunks with a keyword this write sets are dropped, so writing the same
+     * metadata into a file again replaces it and produces the same bytes.
+     */
+    private static PngWriteResult spliceTextChunks(File source,
+                                                   Path target,
+                                                   Map<String, String> entries,
+                                                   PngWriteOptions options,
+                                                   ScreenshotHashIndex hashIndex) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source.toPath()), COPY_BUFFER_SIZE);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), COPY_BUFFER_SIZE)) {
+            PngChunkReader reader = new PngChunkReader(in, COPY_BUFFER_SIZE);
+            out.write(reader.readSignature());
+
+            Xxh64 hasher = new Xxh64();
+            boolean firstChunk = true;
+            boolean textWritten = false;
+            Set<String> replacedKeywords = new HashSet<>(entries.keySet());
+            replacedKeywords.add(CONTENT_HASH_KEY);
+            replacedKeywords.add(DUPLICATE_OF_KEY);
+            int replaced = 0;
+
+            while (reader.next()) {
+                String type = reader.type();
+                if (firstChunk && !"IHDR".equals(type)) {
+                    throw new PngFormatException("first chunk is " + type + ", expected IHDR");
+                }
+                firstChunk = false;
+
+                boolean imageData = "IDAT".equals(type);
+                boolean end = "IEND".equals(type);
+                if (!textWritten && (imageData || end)) {
+                    writeTextChunks(out, entries, options);
+                    textWritten = true;
+                }
+
+                if (end) {
+                    String contentHash = CONTENT_HASH_PREFIX + hasher.hexDigest();
+                    File duplicate = hashIndex != null ? hashIndex.findDuplicate(contentHash, source) : null;
+                    String duplicateOf = duplicate != null ? duplicate.getName() : null;
+
+                    Map<String, String> hashEntries = new LinkedHashMap<>();
+                    hashEntries.put(CONTENT_HASH_KEY, contentHash);
+                    if (duplicateOf != null) {
+                        hashEntries.put(DUPLICATE_OF_KEY, duplicateOf);
+                    }
+                    writeTextChunks(out, hashEntries, options);
+
+                    reader.copyTo(out, null);
+                    if (replaced > 0) {
+                        ScreenshotMetadataCore.LOGGER.debug("Replaced {} existing text chunk(s) in {}", replaced, source.getName());
+                    }
+                    return new PngWriteResult(contentHash, duplicateOf, false);
+                }
+
+                if (PngTextChunks.isTextChunk(type) && reader.length() <= MAX_REPLACEABLE_TEXT_CHUNK) {
+                    byte[] chunk = reader.readChunk();
+                    String keyword = PngTextChunks.readKeyword(chunk, 8, (int) reader.length());
+                    if (keyword != null && replacedKeywords.contains(keyword)) {
+                        replaced++;
+                    } else {
+                        out.write(chunk);
+                    }
+                    continue;
+                }
+
+                reader.copyTo(out, imageData ? hasher : null);
+            }
+
+            throw new PngFormatException("missing IEND chunk");
+        }
+    }
+
+    /**
+     * Replaces the screenshot with a hard link to the earlier identical file, after confirming the
+     * earlier file still hashes the same. Returns null (keep the normal write) if that is not possible.
+     */
+    private static PngWriteResult replaceWithHardLink(File file, Path tempPath, PngWriteResult result) {
+        File original = new File(file.getParentFile(), result.getDuplicateOf());
+        Path linkPath = null;
+        try {
+            if (!result.getContentHash().equals(hashImageData(original))) {
+                return null;
+            }
+            linkPath = PendingTempFiles.register(file.toPath().resolveSibling(file.getName() + ".link.tmp"));
+            Files.deleteIfExists(linkPath);
+            Files.createLink(linkPath, original.toPath());
+            Files.move(linkPath, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(tempPath);
+            PendingTempFiles.release(linkPath);
+            return new PngWriteResult(result.getContentHash(), result.getDuplicateOf(), true);
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not hard-link {} to {}: {}", file.getName(), original.getName(), e.getMessage());
+            if (linkPath != null) {
+                try {
+                    Files.deleteIfExists(linkPath);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+                PendingTempFiles.release(linkPath);
+            }
+            return null;
+        }
+    }
+
+    private static void writeTextChunks(OutputStream out, Map<String, String> entries, PngWriteOptions options) throws IOException {
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!PngTextChunks.writeTextChunk(out, entry.getKey(), entry.getValue(), options.getTextCompressionThreshold())) {
+                ScreenshotMetadataCore.LOGGER.debug("Skipping PNG text entry with invalid keyword: {}", entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Decodes the image and writes it again with the text entries attached.
+     * Only used when the file is not a well-formed PNG chunk stream. The full decode is admitted
+     * through {@link MemoryBudget}; images that do not get admitted in time are re-encoded band by
+     * band instead. Large images go through {@link ParallelPngEncoder}, everything else through ImageIO.
+     */
+    private static void reencode(File file,
+                                 Path tempPath,
+                                 Map<String, String> entries,
+                                 PngWriteOptions options) throws IOException {
+        int[] dimensions = BandedPixelSource.readDimensions(file);
+        if (dimensions == null) {
+            // Header unreadable: let the full decode report the problem
+            decodeAndReencode(file, tempPath, entries, options);
+            return;
+        }
+
+        long decodeBytes = MemoryBudget.estimateDecodeBytes(dimensions[0], dimensions[1]);
+        MemoryBudget budget = MemoryBudget.get();
+        MemoryBudget.Reservation reservation;
+        try {
+            reservation = budget.fitsAlongside(decodeBytes)
+                ? budget.tryReserve(decodeBytes, DECODE_ADMISSION_WAIT_MILLIS)
+                : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for decode memory");
+        }
+
+        if (reservation == null) {
+            ScreenshotMetadataCore.LOGGER.debug("Re-encoding {} band by band ({} MiB decode not admitted, {} MiB reserved)",
+                file.getName(), decodeBytes >> 20, budget.getPipelineReservedBytes() >> 20);
+            try (BandedPixelSource source = BandedPixelSource.open(file);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath), COPY_BUFFER_SIZE)) {
+                ParallelPngEncoder.encode(source, entries, options.getTextCompressionThreshold(), out);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return;
+        }
+
+        try (reservation) {
+            decodeAndReencode(file, tempPath, entries, options);
+        }
+    }
+
+    private static void decodeAndReencode(File file,
+                                          Path tempPath,
+                                          Map<String, String> entries,
+                                          PngWriteOptions options) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("Could not read image data from: " + file.getName());
+        }
+
+        long pixels = (long) image.getWidth() * image.getHeight();
+        if (options.useParallelEncoder(pixels)) {
+            ScreenshotMetadataCore.LOGGER.debug("Re-encoding {} ({} pixels) with the parallel encoder", file.getName(), pixels);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath), COPY_BUFFER_SIZE)) {
+                ParallelPngEncoder.encode(ParallelPngEncoder.fromImage(image), entries,
+                    options.getTextCompressionThreshold(), out);
+            }
+            return;
+        }
+
+        reencodeWithImageIO(image, tempPath, entries, options);
+    }
+
+    private static void reencodeWithImageIO(BufferedImage image,
+                                            Path tempPath,
+                                            Map<String, String> entries,
+                                            PngWriteOptions options) throws IOException {
+        ImageWriter writer = null;
+        try {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+            if (!writers.hasNext()) {
+                throw new IOException("No PNG writer available");
+            }
+            writer = writers.next();
+
+            ImageWriteParam writeParam = writer.getDefaultWriteParam();
+            IIOMetadata meta = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), writeParam);
+            String nativeFormat = meta.getNativeMetadataFormatName();
+
+            if (nativeFormat == null || nativeFormat.isBlank()) {
+                throw new IOException("PNG metadata format is unavailable");
+            }
+
+            int threshold = options.getTextCompressionThreshold();
+            boolean merged = mergeTextMetadata(meta, nativeFormat, entries, true, threshold);
+            if (!merged) {
+                // Recreate metadata before fallback; failed merge calls can leave metadata in a bad state.
+                meta = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), writeParam);
+                nativeFormat = meta.getNativeMetadataFormatName();
+                if (nativeFormat == null || nativeFormat.isBlank() ||
+                    !mergeTextMetadata(meta, nativeFormat, entries, false, threshold)) {
+                    throw new IOException("Could not merge PNG metadata");
+                }
+            }
+
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(tempPath.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, meta), writeParam);
+            }
+        } finally {
+            if (writer != null) {
+                writer.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Builds the full ordered set of text entries: user-provided entries followed by
+     * standard entries that various tools might recognize.
+     */
+    private static Map<String, String> buildTextEntries(Map<String, String> metadata, PngWriteOptions options) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            putEntry(entries, entry.getKey(), entry.getValue());
+        }
+
+        // Build comprehensive description
+        StringBuilder description = new StringBuilder();
+        description.append("Minecraft Screenshot");
+        
+        if (metadata.containsKey("Username")) {
+            description.append(" - Player: ").append(metadata.get("Username"));
+        }
+        if (metadata.containsKey("World")) {
+            description.append(" | World: ").append(metadata.get("World"));
+        }
+        if (metadata.containsKey("X") && metadata.containsKey("Y") && metadata.containsKey("Z")) {
+            description.append(" | Coords: (")
+                      .append(metadata.get("X")).append(", ")
+                      .append(metadata.get("Y")).append(", ")
+                      .append(metadata.get("Z")).append(")");
+        }
+        if (metadata.containsKey("Biome")) {
+            description.append(" | Biome: ").append(metadata.get("Biome"));
+        }
+        
+        // Add standard entries
+        putEntry(entries, "Comment", description.toString());
+        putEntry(entries, "Description", description.toString());
+        putEntry(entries, "Title", "Minecraft - " + metadata.getOrDefault("Username", "Unknown Player"));
+        putEntry(entries, "Software", "Screenshot Metadata Mod v" + ScreenshotMetadataCore.modVersion());
+        putEntry(entries, "Author", metadata.getOrDefault("Username", "Unknown Player"));
+        if (options.isEmbedXmp()) {
+            entries.put(PngTextChunks.XMP_KEYWORD, XmpSidecarWriter.createEmbeddedPacket(metadata));
+        }
+        return entries;
+    }
+
+    private static void putEntry(Map<String, String> entries, String keyword, String value) {
+        if (keyword != null && value != null && !value.trim().isEmpty()) {
+            entries.put(keyword, value.trim());
+        }
+    }
+    
+    /**
+     * Helper method to add a text entry to the ImageIO metadata tree
+     */
+    private static void addTextEntry(IIOMetadataNode textNode,
+                                     IIOMetadataNode compressedNode,
+                                     String keyword,
+                                     String value,
+                                     boolean useITXt,
+                                     boolean compress) {
+        if (useITXt) {
+            IIOMetadataNode textEntry = new IIOMetadataNode("iTXtEntry");
+            textEntry.setAttribute("keyword", keyword);
+            textEntry.setAttribute("text", value);
+            textEntry.setAttribute("languageTag", "");
+            textEntry.setAttribute("translatedKeyword", "");
+            textEntry.setAttribute("compressionFlag", compress ? "TRUE" : "FALSE");
+            textEntry.setAttribute("compressionMethod", "0");
+            textNode.appendChild(textEntry);
+        } else if (compress) {
+            IIOMetadataNode textEntry = new IIOMetadataNode("zTXtEntry");
+            textEntry.setAttribute("keyword", keyword);
+            textEntry.setAttribute("text", value);
+            textEntry.setAttribute("compressionMethod", "0");
+            compressedNode.appendChild(textEntry);
+        } else {
+            IIOMetadataNode textEntry = new IIOMetadataNode("tEXtEntry");
+            textEntry.setAttribute("keyword", keyword);
+            textEntry.setAttribute("value", value);
+            textNode.appendChild(textEntry);
+        }
+    }
+
+    private static boolean mergeTextMetadata(IIOMetadata meta,
+                                             String nativeFormat,
+                                             Map<String, String> entries,
+                                             boolean useITXt,
+                                             int compressionThreshold) {
+        try {
+            IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(nativeFormat);
+            IIOMetadataNode textNode = new IIOMetadataNode(useITXt ? "iTXt" : "tEXt");
+            IIOMetadataNode compressedNode = new IIOMetadataNode("zTXt");
+
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                boolean compress = PngTextChunks.shouldCompress(entry.getKey(),
+                    entry.getValue().getBytes(StandardCharsets.UTF_8).length, compressionThreshold);
+                addTextEntry(textNode, compressedNode, entry.getKey(), entry.getValue(), useITXt, compress);
+            }
+
+            root.appendChild(textNode);
+            if (compressedNode.hasChildNodes()) {
+                root.appendChild(compressedNode);
+            }
+            meta.mergeTree(nativeFormat, root);
+            return true;
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.debug("PNG metadata merge failed for {} chunks: {}",
+                useITXt ? "iTXt" : "tEXt", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes PNG text chunks (zTXt and iTXt) directly, without going through ImageIO.
+ * Values at or above the compression threshold are deflated with a {@link Deflater} created
+ * for the call and released straight after it; Latin-1 values go into zTXt (widest reader support), everything else
+ * into a compressed iTXt chunk.
+ */
+public final class PngTextChunks {
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    /**
+     * Keyword of the iTXt chunk holding an embedded XMP packet. Always written uncompressed,
+     * since XMP readers scan for the packet in plain text.
+     */
+    public static final String XMP_KEYWORD = "XML:com.adobe.xmp";
+
+    /**
+     * The strongest level costs nothing measurable here. The one capture value that crosses a
+     * threshold, a long potion-effect list (~400 bytes), deflates to 264 bytes at levels 6 and 9
+     * and 265 at level 1. All three take about 20 us, which is mostly Deflater setup
+     * ({@code TextChunkCompressionBenchmark}). Level 9 never loses on size, and only starts to
+     * cost time on multi-kilobyte values the mod does not write.
+     */
+    static final int TEXT_COMPRESSION_LEVEL = Deflater.BEST_COMPRESSION;
+
+    private static final int MAX_KEYWORD_LENGTH = 79;
+    private static final byte[] TYPE_ZTXT = {'z', 'T', 'X', 't'};
+    private static final byte[] TYPE_ITXT = {'i', 'T', 'X', 't'};
+
+    private PngTextChunks() {
+    }
+
+    /**
+     * Writes one text chunk for the given entry.
+     *
+     * @param out Destination stream, positioned at a chunk boundary
+     * @param keyword PNG keyword (1-79 Latin-1 characters)
+     * @param value Text value
+     * @param compressionThreshold Minimum UTF-8 size in bytes before the value is compressed; {@code <= 0} disables compression
+     * @return true if a chunk was written, false if the keyword was not valid for PNG
+     * @throws IOException if writing to the stream fails
+     */
+    public static boolean writeTextChunk(OutputStream out, String keyword, String value, int compressionThreshold) throws IOException {
+        return writeTextChunk(out, keyword, value, compressionThreshold, TEXT_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Writes one text chunk, deflating at the given level instead of {@link #TEXT_COMPRESSION_LEVEL}.
+     * Used by the benchmarks that pick the level; the metadata writer always uses the default.
+     */
+    public static boolean writeTextChunk(OutputStream out, String keyword, String value, int compressionThreshold,
+                                         int compressionLevel) throws IOException {
+        if (!isValidKeyword(keyword) || value == null) {
+            return false;
+        }
+
+        byte[] keywordBytes = keyword.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+
+        if (shouldCompress(keyword, utf8.length, compressionThreshold)) {
+            boolean latin1 = isLatin1(value);
+            byte[] raw = latin1 ? value.getBytes(StandardCharsets.ISO_8859_1) : utf8;
+            byte[] compressed = deflate(raw, compressionLevel);
+            if (compressed.length < raw.length) {
+                if (latin1) {
+                    writeZtxt(out, keywordBytes, compressed);
+                } else {
+                    writeItxt(out, keywordBytes, compressed, true);
+                }
+                return true;
+            }
+        }
+
+        writeItxt(out, keywordBytes, utf8, false);
+        return true;
+    }
+
+    /**
+     * Whether a value of the given UTF-8 size is stored compressed under the threshold.
+     */
+    public static boolean shouldCompress(String keyword, int utf8Length, int compressionThreshold) {
+        return compressionThreshold > 0 && utf8Length >= compressionThreshold && !XMP_KEYWORD.equals(keyword);
+    }
+
+    /**
+     * Writes a raw PNG chunk with its length and CRC.
+     */
+    public static void writeChunk(OutputStream out, byte[] type, byte[] data, int offset, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data, offset, length);
+
+        writeInt(out, length);
+        out.write(type);
+        out.write(data, offset, length);
+        writeInt(out, (int) crc.getValue());
+    }
+
+    static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Whether the chunk type is one of the three PNG text chunks, which all start with a keyword.
+     */
+    static boolean isTextChunk(String type) {
+        return "tEXt".equals(type) || "zTXt".equals(type) || "iTXt".equals(type);
+    }
+
+    /**
+     * Reads the null-terminated keyword at the start of a text chunk payload.
+     *
+     * @return the keyword, or null if the payload does not start with one
+     */
+    static String readKeyword(byte[] data, int offset, int length) {
+        int limit = Math.min(length, MAX_KEYWORD_LENGTH + 1);
+        for (int i = 0; i < limit; i++) {
+            if (data[offset + i] == 0) {
+                return i > 0 ? new String(data, offset, i, StandardCharsets.ISO_8859_1) : null;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isValidKeyword(String keyword) {
+        if (keyword == null || keyword.isEmpty() || keyword.length() > MAX_KEYWORD_LENGTH) {
+            return false;
+        }
+        if (keyword.charAt(0) == ' ' || keyword.charAt(keyword.length() - 1) == ' ' || keyword.contains("  ")) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c < 32 || (c > 126 && c < 161) || c > 255) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] deflate(byte[] input, int level) {
+        // Not pooled: sinks run on short-lived virtual threads, so a per-thread Deflater would be
+        // created per call anyway and its native memory left for the cleaner to release
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] buffer = new byte[Math.min(4096, input.length + 64)];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                result.write(buffer, 0, count);
+            }
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeZtxt(OutputStream out, byte[] keyword, byte[] compressed) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(keyword.length + 2 + compressed.length);
+        data.write(keyword);
+        data.write(0);
+        data.write(0); // compression method: deflate
+        data.write(compressed);
+        byte[] bytes = data.toByteArray();
+        writeChunk(out, TYPE_ZTXT, bytes, 0, bytes.length);
+    }
+
+    private static void writeItxt(OutputStream out, byte[] keyword, byte[] text, boolean compressed) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(keyword.length + 5 + text.length);
+        data.write(keyword);
+        data.write(0);
+        data.write(compressed ? 1 : 0);
+        data.write(0); // compression method: deflate
+        data.write(0); // empty language tag
+        data.write(0); // empty translated keyword
+        data.write(text);
+        byte[] bytes = data.toByteArray();
+        writeChunk(out, TYPE_ITXT, bytes, 0, bytes.length);
+    }
+
+    private static boolean isLatin1(String value) {
+        CharsetEncoder encoder = StandardCharsets.ISO_8859_1.newEncoder();
+        return encoder.canEncode(value);
+    }
+}
@@ -0,0 +1,75 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+public class PngWriteOptions {
+    public static final long DEFAULT_PARALLEL_ENCODE_MIN_PIXELS = 16L * 1024 * 1024;
+
+    private static final PngWriteOptions DEFAULTS = new PngWriteOptions(
+        PngTextChunks.DEFAULT_COMPRESSION_THRESHOLD,
+        DEFAULT_PARALLEL_ENCODE_MIN_PIXELS,
+        DuplicateMode.FLAG,
+        false,
+        Durability.FILE
+    );
+
+    private final int textCompressionThreshold;
+    private final long parallelEncodeMinPixels;
+    private final DuplicateMode duplicateMode;
+    private final boolean embedXmp;
+    private final Durability durability;
+
+    public PngWriteOptions(int textCompressionThreshold, long parallelEncodeMinPixels, DuplicateMode duplicateMode) {
+        this(textCompressionThreshold, parallelEncodeMinPixels, duplicateMode, false, Durability.FILE);
+    }
+
+    public PngWriteOptions(int textCompressionThreshold,
+                           long parallelEncodeMinPixels,
+                           DuplicateMode duplicateMode,
+                           boolean embedXmp,
+                           Durability durability) {
+        this.textCompressionThreshold = textCompressionThreshold;
+        this.parallelEncodeMinPixels = parallelEncodeMinPixels;
+        this.duplicateMode = duplicateMode != null ? duplicateMode : DuplicateMode.FLAG;
+        this.embedXmp = embedXmp;
+        this.durability = durability != null ? durability : Durability.FILE;
+    }
+
+    public static PngWriteOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Minimum UTF-8 size in bytes before a text value is written compressed; {@code <= 0} disables compression.
+     */
+    public int getTextCompressionThreshold() {
+        return textCompressionThreshold;
+    }
+
+    /**
+     * Pixel count from which a re-encode uses {@link ParallelPngEncoder} instead of ImageIO; {@code <= 0} disables it.
+     */
+    public long getParallelEncodeMinPixels() {
+        return parallelEncodeMinPixels;
+    }
+
+    public DuplicateMode getDuplicateMode() {
+        return duplicateMode;
+    }
+
+    /**
+     * Whether the XMP document is embedded as an {@code XML:com.adobe.xmp} iTXt chunk.
+     */
+    public boolean isEmbedXmp() {
+        return embedXmp;
+    }
+
+    /**
+     * How far the rewritten file is flushed before {@link PngMetadataWriter#writeMetadata} returns.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public boolean useParallelEncoder(long pixels) {
+        return parallelEncodeMinPixels > 0 && pixels >= parallelEncodeMinPixels;
+    }
+}
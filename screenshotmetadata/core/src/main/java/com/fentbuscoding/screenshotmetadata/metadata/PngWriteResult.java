@@ -0,0 +1,40 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+public class PngWriteResult {
+    private static final PngWriteResult EMPTY = new PngWriteResult(null, null, false);
+
+    private final String contentHash;
+    private final String duplicateOf;
+    private final boolean hardLinked;
+
+    public PngWriteResult(String contentHash, String duplicateOf, boolean hardLinked) {
+        this.contentHash = contentHash;
+        this.duplicateOf = duplicateOf;
+        this.hardLinked = hardLinked;
+    }
+
+    public static PngWriteResult empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Hash of the image data ({@code xxh64:<hex>}), or null when the file had to be re-encoded.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Name of an earlier screenshot with identical image data, or null.
+     */
+    public String getDuplicateOf() {
+        return duplicateOf;
+    }
+
+    /**
+     * True if the screenshot was replaced by a hard link to {@link #getDuplicateOf()}.
+     */
+    public boolean isHardLinked() {
+        return hardLinked;
+    }
+}
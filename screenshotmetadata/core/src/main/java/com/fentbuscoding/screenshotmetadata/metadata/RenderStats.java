@@ -0,0 +1,52 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+/**
+ * World and render load at capture time, the counters the F3 screen shows.
+ * Each value is -1 when it could not be read in this game version.
+ */
+public class RenderStats {
+    private final long loadedChunks;
+    private final long chunksPendingRebuild;
+    private final long renderedEntities;
+    private final long totalEntities;
+    private final long blockEntities;
+    private final long particles;
+
+    public RenderStats(long loadedChunks,
+                       long chunksPendingRebuild,
+                       long renderedEntities,
+                       long totalEntities,
+                       long blockEntities,
+                       long particles) {
+        this.loadedChunks = loadedChunks;
+        this.chunksPendingRebuild = chunksPendingRebuild;
+        this.renderedEntities = renderedEntities;
+        this.totalEntities = totalEntities;
+        this.blockEntities = blockEntities;
+        this.particles = particles;
+    }
+
+    public long getLoadedChunks() {
+        return loadedChunks;
+    }
+
+    public long getChunksPendingRebuild() {
+        return chunksPendingRebuild;
+    }
+
+    public long getRenderedEntities() {
+        return renderedEntities;
+    }
+
+    public long getTotalEntities() {
+        return totalEntities;
+    }
+
+    public long getBlockEntities() {
+        return blockEntities;
+    }
+
+    public long getParticles() {
+        return particles;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent image-hash to file-name index for one screenshots folder.
+ * Stored as an append-only tab-separated file inside the folder and compacted on load
+ * once stale lines outnumber live ones.
+ */
+public final class ScreenshotHashIndex {
+    public static final String INDEX_FILE_NAME = ".screenshotmetadata-hashes.tsv";
+    private static final Map<Path, ScreenshotHashIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final Path indexFile;
+    private final Map<String, String> filesByHash = new HashMap<>();
+    private boolean loaded;
+
+    private ScreenshotHashIndex(Path directory) {
+        this.directory = directory;
+        this.indexFile = directory.resolve(INDEX_FILE_NAME);
+    }
+
+    public static ScreenshotHashIndex forDirectory(File directory) {
+        Path key = directory.toPath().toAbsolutePath().normalize();
+        return INDEXES.computeIfAbsent(key, ScreenshotHashIndex::new);
+    }
+
+    /**
+     * Returns an existing file in this folder whose image data has the given hash, ignoring the candidate itself.
+     */
+    public synchronized File findDuplicate(String hash, File candidate) {
+        ensureLoaded();
+        String name = filesByHash.get(hash);
+        if (name == null || (candidate != null && name.equals(candidate.getName()))) {
+            return null;
+        }
+        File existing = directory.resolve(name).toFile();
+        return existing.isFile() ? existing : null;
+    }
+
+    /**
+     * Records the file as the canonical owner of the hash, unless another existing file already owns it.
+     */
+    public synchronized void record(String hash, File file) {
+        ensureLoaded();
+        String current = filesByHash.get(hash);
+        if (current != null && (current.equals(file.getName()) || directory.resolve(current).toFile().isFile())) {
+            return;
+        }
+
+        filesByHash.put(hash, file.getName());
+        try (BufferedWriter writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(hash);
+            writer.write('\t');
+            writer.write(file.getName());
+            writer.newLine();
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not update screenshot hash index: {}", e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0 || tab == line.length() - 1) {
+                    continue;
+                }
+                lines++;
+                filesByHash.put(line.substring(0, tab), line.substring(tab + 1));
+            }
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not read screenshot hash index: {}", e.getMessage());
+            return;
+        }
+
+        filesByHash.values().removeIf(name -> !directory.resolve(name).toFile().isFile());
+        if (lines > filesByHash.size() * 2 + 64) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        try {
+            Path temp = Files.createTempFile(directory, INDEX_FILE_NAME, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : filesByHash.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('\t');
+                    writer.write(entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not compact screenshot hash index: {}", e.getMessage());
+        }
+    }
+}
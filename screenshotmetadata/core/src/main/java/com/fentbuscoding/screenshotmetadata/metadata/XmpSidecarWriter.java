@@ -1,6 +1,6 @@
 package com.fentbuscoding.screenshotmetadata.metadata;
 
-import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataMod;
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -14,8 +14,12 @@ import java.util.Map;
  */
 public class XmpSidecarWriter {
     
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    // Packet wrapper that tools scanning files for embedded XMP look for
+    private static final String XPACKET_BEGIN = "<?xpacket begin=\"\uFEFF\" id=\"W5M0MpCehiHzreSzNTczkc9d\"?>\n";
+    private static final String XPACKET_END = "\n<?xpacket end=\"r\"?>";
+
     private static final String XMP_TEMPLATE_HEADER = 
-        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
         "<x:xmpmeta xmlns:x=\"adobe:ns:meta/\">\n" +
         " <rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n" +
         "          xmlns:dc=\"http://purl.org/dc/elements/1.1/\"\n" +
@@ -36,8 +40,19 @@ public class XmpSidecarWriter {
      * @param metadata The metadata to include in the XMP file
      */
     public static void writeSidecarFile(File imageFile, Map<String, String> metadata) {
+        writeSidecarFile(imageFile, metadata, Durability.NONE);
+    }
+
+    /**
+     * Creates an XMP sidecar file and flushes it as far as the durability level asks.
+     *
+     * @param imageFile The image file to create a sidecar for
+     * @param metadata The metadata to include in the XMP file
+     * @param durability How far to flush the sidecar before returning
+     */
+    public static void writeSidecarFile(File imageFile, Map<String, String> metadata, Durability durability) {
         if (imageFile == null || !imageFile.exists()) {
-            ScreenshotMetadataMod.LOGGER.warn("Cannot create XMP sidecar for non-existent file: {}", 
+            ScreenshotMetadataCore.LOGGER.warn("Cannot create XMP sidecar for non-existent file: {}", 
                 imageFile != null ? imageFile.getName() : "null");
             return;
         }
@@ -49,19 +64,31 @@ public class XmpSidecarWriter {
             try (FileWriter writer = new FileWriter(xmpFile)) {
                 writer.write(xmpContent);
             }
+            GroupSync.syncFile(xmpFile.toPath(), durability);
+            GroupSync.syncDirectoryOf(xmpFile.toPath(), durability);
             
-            ScreenshotMetadataMod.LOGGER.debug("Created XMP sidecar file: {}", xmpFile.getName());
+            ScreenshotMetadataCore.LOGGER.debug("Created XMP sidecar file: {}", xmpFile.getName());
             
         } catch (IOException e) {
-            ScreenshotMetadataMod.LOGGER.error("Failed to create XMP sidecar file for {}: {}", 
+            ScreenshotMetadataCore.LOGGER.error("Failed to create XMP sidecar file for {}: {}", 
                 imageFile.getName(), e.getMessage());
         }
     }
     
+    /**
+     * Builds the same XMP document as the sidecar, wrapped as an XMP packet for embedding
+     * in the image file itself.
+     *
+     * @param metadata The metadata to include in the packet
+     */
+    public static String createEmbeddedPacket(Map<String, String> metadata) {
+        return XPACKET_BEGIN + generateXmpDocument(metadata) + XPACKET_END;
+    }
+
     /**
      * Gets the XMP file path for a given image file
      */
-    private static File getXmpFile(File imageFile) {
+    public static File getXmpFile(File imageFile) {
         String baseName = imageFile.getName();
         int dotIndex = baseName.lastIndexOf('.');
         if (dotIndex > 0) {
@@ -74,6 +101,10 @@ public class XmpSidecarWriter {
      * Generates the complete XMP content
      */
     private static String generateXmpContent(File imageFile, Map<String, String> metadata) {
+        return XML_DECLARATION + generateXmpDocument(metadata);
+    }
+
+    private static String generateXmpDocument(Map<String, String> metadata) {
         StringBuilder xmp = new StringBuilder();
         xmp.append(XMP_TEMPLATE_HEADER);
         
@@ -143,7 +174,7 @@ public class XmpSidecarWriter {
     private static void addXmpBasicMetadata(StringBuilder xmp, Map<String, String> metadata) {
         // Software
           xmp.append("   <xmp:CreatorTool>Screenshot Metadata Mod v")
-              .append(escapeXml(ScreenshotMetadataMod.MOD_VERSION))
+              .append(escapeXml(ScreenshotMetadataCore.modVersion()))
               .append("</xmp:CreatorTool>\n");
         
         // Creation date
@@ -154,7 +185,7 @@ public class XmpSidecarWriter {
                 xmp.append("   <xmp:CreateDate>").append(formattedDate).append("</xmp:CreateDate>\n");
                 xmp.append("   <xmp:ModifyDate>").append(formattedDate).append("</xmp:ModifyDate>\n");
             } catch (Exception e) {
-                ScreenshotMetadataMod.LOGGER.debug("Could not parse timestamp: {}", metadata.get("Timestamp"));
+                ScreenshotMetadataCore.LOGGER.debug("Could not parse timestamp: {}", metadata.get("Timestamp"));
             }
         }
     }
@@ -0,0 +1,124 @@
+package com.fentbuscoding.screenshotmetadata.metadata;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.HexFormat;
+
+/**
+ * Streaming XXH64 (seed 0). Used to fingerprint PNG image data while it is being copied,
+ * so duplicate detection never needs a separate read pass.
+ */
+public final class Xxh64 {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final byte[] buffer = new byte[32];
+    private int buffered;
+    private long totalLength;
+    private long v1 = PRIME1 + PRIME2;
+    private long v2 = PRIME2;
+    private long v3 = 0;
+    private long v4 = -PRIME1;
+
+    public void update(byte[] data, int offset, int length) {
+        totalLength += length;
+        int position = offset;
+        int end = offset + length;
+
+        if (buffered > 0) {
+            int fill = Math.min(32 - buffered, length);
+            System.arraycopy(data, position, buffer, buffered, fill);
+            buffered += fill;
+            position += fill;
+            if (buffered < 32) {
+                return;
+            }
+            consumeStripe(buffer, 0);
+            buffered = 0;
+        }
+
+        while (end - position >= 32) {
+            consumeStripe(data, position);
+            position += 32;
+        }
+
+        if (position < end) {
+            buffered = end - position;
+            System.arraycopy(data, position, buffer, 0, buffered);
+        }
+    }
+
+    public long digest() {
+        long hash;
+        if (totalLength >= 32) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += totalLength;
+
+        int position = 0;
+        while (position + 8 <= buffered) {
+            hash ^= round(0, readLong(buffer, position));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            position += 8;
+        }
+        if (position + 4 <= buffered) {
+            hash ^= (readInt(buffer, position) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            position += 4;
+        }
+        while (position < buffered) {
+            hash ^= (buffer[position] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            position++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    public String hexDigest() {
+        return HexFormat.of().toHexDigits(digest());
+    }
+
+    private void consumeStripe(byte[] data, int offset) {
+        v1 = round(v1, readLong(data, offset));
+        v2 = round(v2, readLong(data, offset + 8));
+        v3 = round(v3, readLong(data, offset + 16));
+        v4 = round(v4, readLong(data, offset + 24));
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME1 + PRIME4;
+    }
+
+    private static long readLong(byte[] data, int offset) {
+        return (long) LONG_LE.get(data, offset);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (int) INT_LE.get(data, offset);
+    }
+}
@@ -0,0 +1,76 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarContext;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything captured on the render thread for one screenshot. Serialized into the journal
+ * as-is, so a capture can be finished after a restart without the game state it came from.
+ */
+public class CaptureSnapshot {
+    private final String id;
+    private final String gameDirectory;
+    private final String preSaveNewest;
+    private final long capturedAtMillis;
+    private final Map<String, String> metadata;
+    private final JsonSidecarContext sidecarContext;
+    // Not journaled: a replayed job runs with the config of the session that replays it
+    private final transient ScreenshotMetadataConfig config;
+
+    public CaptureSnapshot(File gameDirectory,
+                           File preSaveNewest,
+                           long capturedAtMillis,
+                           Map<String, String> metadata,
+                           JsonSidecarContext sidecarContext,
+                           ScreenshotMetadataConfig config) {
+        this.id = UUID.randomUUID().toString();
+        this.gameDirectory = gameDirectory.getAbsolutePath();
+        this.preSaveNewest = preSaveNewest != null ? preSaveNewest.getAbsolutePath() : null;
+        this.capturedAtMillis = capturedAtMillis;
+        this.metadata = new LinkedHashMap<>(metadata);
+        this.sidecarContext = sidecarContext;
+        this.config = config;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public File getGameDirectory() {
+        return new File(gameDirectory);
+    }
+
+    /**
+     * Newest screenshot that existed before this capture, used to tell the new file apart.
+     */
+    public File getPreSaveNewest() {
+        return preSaveNewest != null ? new File(preSaveNewest) : null;
+    }
+
+    public long getCapturedAtMillis() {
+        return capturedAtMillis;
+    }
+
+    /**
+     * Returns a mutable copy; the pipeline adds write results (such as the content hash) to it.
+     */
+    public Map<String, String> copyMetadata() {
+        return new LinkedHashMap<>(metadata);
+    }
+
+    public JsonSidecarContext getSidecarContext() {
+        return sidecarContext;
+    }
+
+    /**
+     * The config snapshot the capture was taken with, so every stage of one job sees the same settings.
+     */
+    public ScreenshotMetadataConfig getConfig() {
+        return config != null ? config : ScreenshotMetadataConfig.get();
+    }
+}
@@ -0,0 +1,241 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.ParallelPngEncoder;
+import com.fentbuscoding.screenshotmetadata.metadata.PngMetadataWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteResult;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lets the thread that saves a screenshot encode it straight from the in-memory frame with the
+ * metadata already attached, instead of the game writing the file and the pipeline rewriting it.
+ * Each capture is offered here when it is submitted. The saving thread claims the oldest offer for
+ * its folder; the job either collects the written file or, if nobody claimed the offer in time,
+ * withdraws it and takes the regular path.
+ * <p>
+ * The render thread announces a capture with {@link #expectCapture} before the game schedules the
+ * save and resolves it with {@link #captureSubmitted} afterwards. A saving thread only waits for an
+ * offer while one is announced for its folder, so saves no capture belongs to go ahead at once.
+ */
+public final class DirectScreenshotWriter {
+    // Longest the saving thread waits for an announced capture to be submitted
+    private static final long CLAIM_WAIT_MILLIS = 250L;
+    // How long a job waits for its offer to be claimed before taking the regular path
+    private static final long UNCLAIMED_WAIT_MILLIS = 2_000L;
+    // How long a job waits for a claimed write to finish
+    private static final long WRITE_WAIT_MILLIS = 30_000L;
+    // Offers and announcements older than this belong to frames that were saved some other way
+    private static final long STALE_OFFER_MILLIS = 10_000L;
+
+    private static final Object LOCK = new Object();
+    private static final Deque<Offer> UNCLAIMED = new ArrayDeque<>();
+    private static final Map<String, Offer> BY_ID = new HashMap<>();
+    private static final Deque<Expected> EXPECTED = new ArrayDeque<>();
+
+    private DirectScreenshotWriter() {
+    }
+
+    static boolean isEnabled(ScreenshotMetadataConfig config) {
+        return config.isWritePngMetadata() && config.isEncodeFromNativeImage();
+    }
+
+    /**
+     * Called on the render thread before a screenshot is saved, if the current config encodes
+     * screenshots directly. Must be paired with {@link #captureSubmitted}.
+     */
+    public static void expectCapture(File gameDirectory) {
+        if (!isEnabled(ScreenshotMetadataConfig.get())) {
+            return;
+        }
+        Expected expected = new Expected(screenshotsDirectory(gameDirectory), System.currentTimeMillis());
+        synchronized (LOCK) {
+            EXPECTED.addLast(expected);
+        }
+    }
+
+    /**
+     * Called on the render thread once the capture announced by {@link #expectCapture} has been
+     * submitted, or has been dropped. Waiting saving threads then claim its offer or give up.
+     */
+    public static void captureSubmitted(File gameDirectory) {
+        Path directory = screenshotsDirectory(gameDirectory);
+        synchronized (LOCK) {
+            for (Iterator<Expected> iterator = EXPECTED.iterator(); iterator.hasNext(); ) {
+                if (iterator.next().directory.equals(directory)) {
+                    iterator.remove();
+                    break;
+                }
+            }
+            LOCK.notifyAll();
+        }
+    }
+
+    static void offer(CaptureSnapshot snapshot) {
+        Offer offer = new Offer(snapshot);
+        synchronized (LOCK) {
+            UNCLAIMED.addLast(offer);
+            BY_ID.put(snapshot.getId(), offer);
+            LOCK.notifyAll();
+        }
+    }
+
+    /**
+     * Called by the thread saving a screenshot. Encodes the pixels with the metadata of the matching
+     * capture and returns the result, or returns null so the game writes the file itself.
+     */
+    public static PngWriteResult write(Path path, ParallelPngEncoder.PixelSource pixels) {
+        if (!isEnabled(ScreenshotMetadataConfig.get())) {
+            return null;
+        }
+        Offer offer = claim(path.toAbsolutePath().normalize().getParent());
+        if (offer == null) {
+            return null;
+        }
+
+        CaptureSnapshot snapshot = offer.snapshot;
+        File file = path.toFile();
+        try {
+            PngWriteResult result = PngMetadataWriter.writeImage(file, pixels, snapshot.copyMetadata(),
+                ScreenshotPipeline.pngWriteOptions(snapshot.getConfig()));
+            offer.written.complete(new Written(file, ScreenshotPipeline.identityValues(result)));
+            ScreenshotMetadataCore.LOGGER.debug("Encoded {} from the frame buffer with metadata attached", file.getName());
+            return result;
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.warn("Direct screenshot encode failed for {}, letting the game write it: {}",
+                file.getName(), e.getMessage());
+            offer.written.complete(null);
+            return null;
+        }
+    }
+
+    /**
+     * Waits for the direct write of a submitted capture.
+     *
+     * @return The written file and the values the PNG sink added, or null if the job must locate and rewrite the file itself
+     */
+    static Written awaitWritten(String snapshotId) {
+        Offer offer;
+        synchronized (LOCK) {
+            offer = BY_ID.remove(snapshotId);
+        }
+        if (offer == null) {
+            return null;
+        }
+        try {
+            return offer.written.get(UNCLAIMED_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException unclaimed) {
+            synchronized (LOCK) {
+                if (UNCLAIMED.remove(offer)) {
+                    return null;
+                }
+            }
+            // Claimed meanwhile: the frame is being encoded right now
+            try {
+                return offer.written.get(WRITE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static Offer claim(Path directory) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLAIM_WAIT_MILLIS);
+        synchronized (LOCK) {
+            while (true) {
+                long now = System.currentTimeMillis();
+                for (Iterator<Offer> iterator = UNCLAIMED.iterator(); iterator.hasNext(); ) {
+                    Offer offer = iterator.next();
+                    if (now - offer.snapshot.getCapturedAtMillis() > STALE_OFFER_MILLIS) {
+                        continue;
+                    }
+                    if (offer.screenshotsDirectory.equals(directory)) {
+                        iterator.remove();
+                        return offer;
+                    }
+                }
+                if (!isExpected(directory, now)) {
+                    return null;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    return null;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(LOCK, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether a capture for the folder has been announced and not yet submitted.
+     */
+    private static boolean isExpected(Path directory, long now) {
+        EXPECTED.removeIf(expected -> now - expected.announcedAtMillis > STALE_OFFER_MILLIS);
+        for (Expected expected : EXPECTED) {
+            if (expected.directory.equals(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Path screenshotsDirectory(File gameDirectory) {
+        return gameDirectory.toPath().toAbsolutePath().resolve("screenshots").normalize();
+    }
+
+    static final class Written {
+        private final File file;
+        private final Map<String, String> pngValues;
+
+        private Written(File file, Map<String, String> pngValues) {
+            this.file = file;
+            this.pngValues = pngValues;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        Map<String, String> getPngValues() {
+            return pngValues;
+        }
+    }
+
+    private static final class Offer {
+        private final CaptureSnapshot snapshot;
+        private final Path screenshotsDirectory;
+        private final CompletableFuture<Written> written = new CompletableFuture<>();
+
+        private Offer(CaptureSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.screenshotsDirectory = screenshotsDirectory(snapshot.getGameDirectory());
+        }
+    }
+
+    private record Expected(Path directory, long announcedAtMillis) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks how hard the client is working so background stages can stay out of its way.
+ * The render thread reports every frame; workers ask whether the game is under pressure and,
+ * if so, wait for a quiet moment, never longer than their deferral bound.
+ */
+public final class FrameBudget {
+    private static final FrameBudget INSTANCE = new FrameBudget();
+
+    private static final double FAST_ALPHA = 0.2;
+    private static final double SLOW_ALPHA = 0.01;
+    // A frame average this far above the session baseline is a stutter in progress
+    private static final double SPIKE_FACTOR = 1.5;
+    private static final long SPIKE_FLOOR_NANOS = TimeUnit.MILLISECONDS.toNanos(17);
+    // Below 20 fps the game is struggling regardless of its baseline
+    private static final long SLOW_FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int CHUNK_BUILD_PRESSURE = 48;
+    // No frame for this long means nothing is rendering (minimized, loading, stopping)
+    private static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long POLL_MILLIS = 50L;
+
+    // Written by the render thread only
+    private volatile long lastFrameNanos;
+    private volatile double fastFrameNanos;
+    private volatile double slowFrameNanos;
+    private volatile int pendingChunkBuilds;
+    private volatile boolean idle = true;
+
+    private FrameBudget() {
+    }
+
+    public static FrameBudget get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Called once per frame from the render thread.
+     *
+     * @param nowNanos {@link System#nanoTime()} at the start of the frame
+     * @param idle True while paused or in a menu, when background work cannot cause visible stutter
+     * @param pendingChunkBuilds Chunk sections waiting to be built, or 0 if unknown
+     */
+    public void recordFrame(long nowNanos, boolean idle, int pendingChunkBuilds) {
+        long previous = lastFrameNanos;
+        lastFrameNanos = nowNanos;
+        this.idle = idle;
+        this.pendingChunkBuilds = pendingChunkBuilds;
+        if (previous == 0L) {
+            return;
+        }
+        long frame = nowNanos - previous;
+        if (frame <= 0L || frame > STALE_NANOS) {
+            return;
+        }
+        if (slowFrameNanos == 0.0) {
+            fastFrameNanos = frame;
+            slowFrameNanos = frame;
+            return;
+        }
+        fastFrameNanos += FAST_ALPHA * (frame - fastFrameNanos);
+        slowFrameNanos += SLOW_ALPHA * (frame - slowFrameNanos);
+    }
+
+    public boolean isUnderPressure() {
+        long last = lastFrameNanos;
+        if (idle || last == 0L || System.nanoTime() - last > STALE_NANOS) {
+            return false;
+        }
+        double fast = fastFrameNanos;
+        boolean spiking = fast > SPIKE_FLOOR_NANOS && fast > slowFrameNanos * SPIKE_FACTOR;
+        return spiking || fast > SLOW_FRAME_NANOS || pendingChunkBuilds > CHUNK_BUILD_PRESSURE;
+    }
+
+    /**
+     * Blocks while the game is under pressure, for at most the given time.
+     *
+     * @return How long the caller was held back, in milliseconds
+     */
+    public long awaitQuiet(long maxDeferMillis) {
+        if (maxDeferMillis <= 0L || !isUnderPressure()) {
+            return 0L;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDeferMillis);
+        try {
+            while (isUnderPressure() && System.nanoTime() < deadline) {
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,321 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Write-ahead journal of screenshot jobs, one JSON record per line.
+ * A capture is journaled before any work starts, followed by the resolved file, each
+ * confirmed sink and finally completion. A single writer thread group-commits everything
+ * queued since its last fsync, and truncates the file whenever no job is left unfinished.
+ */
+final class MetadataJournal {
+    static final String FILE_NAME = "screenshotmetadata-journal.jsonl";
+    private static final Gson GSON = new Gson();
+    private static final int MAX_BATCH = 256;
+
+    private static final String CAPTURE = "capture";
+    private static final String RESOLVED = "resolved";
+    private static final String SINK = "sink";
+    private static final String DONE = "done";
+
+    private final Path file;
+    private final BlockingQueue<Append> queue = new LinkedBlockingQueue<>();
+    // Owned by the writer thread once started
+    private final Map<String, PendingCapture> pending = new LinkedHashMap<>();
+    private final List<PendingCapture> recovered;
+    private FileChannel channel;
+
+    private MetadataJournal(Path file) {
+        this.file = file;
+        this.recovered = readExisting();
+    }
+
+    /**
+     * Opens the journal, collecting jobs left unfinished by the previous session, and starts its writer.
+     */
+    static MetadataJournal open(Path file) {
+        MetadataJournal journal = new MetadataJournal(file);
+        try {
+            journal.rewritePending();
+            journal.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Screenshot metadata journal unavailable, jobs will not survive a crash: {}", e.getMessage());
+        }
+
+        Thread writer = new Thread(journal::writeLoop, "Screenshot Metadata Journal");
+        writer.setDaemon(true);
+        writer.start();
+        return journal;
+    }
+
+    /**
+     * Jobs that were journaled but never completed in the previous session.
+     */
+    List<PendingCapture> recoveredJobs() {
+        return recovered;
+    }
+
+    /**
+     * Journals a new capture. The returned future completes once the record is on disk (or the journal gave up).
+     */
+    CompletableFuture<Void> recordCapture(CaptureSnapshot snapshot) {
+        Record record = new Record(CAPTURE, snapshot.getId());
+        record.snapshot = snapshot;
+        return append(record);
+    }
+
+    CompletableFuture<Void> recordResolved(String id, File screenshotFile) {
+        Record record = new Record(RESOLVED, id);
+        record.file = screenshotFile.getAbsolutePath();
+        return append(record);
+    }
+
+    CompletableFuture<Void> recordSink(String id, String sink, Map<String, String> values) {
+        Record record = new Record(SINK, id);
+        record.sink = sink;
+        record.values = values == null || values.isEmpty() ? null : values;
+        return append(record);
+    }
+
+    CompletableFuture<Void> recordDone(String id) {
+        return append(new Record(DONE, id));
+    }
+
+    /**
+     * Completes once everything appended before this call is on disk.
+     */
+    CompletableFuture<Void> sync() {
+        return append(null);
+    }
+
+    private CompletableFuture<Void> append(Record record) {
+        Append append = new Append(record);
+        queue.add(append);
+        return append.durable;
+    }
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+
+            buffer.reset();
+            for (Append append : batch) {
+                if (append.record == null) {
+                    continue;
+                }
+                apply(pending, append.record);
+                buffer.writeBytes(GSON.toJson(append.record).getBytes(StandardCharsets.UTF_8));
+                buffer.write('\n');
+            }
+
+            commit(buffer);
+            for (Append append : batch) {
+                append.durable.complete(null);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(ByteArrayOutputStream buffer) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (pending.isEmpty()) {
+                // Every journaled job is finished: nothing on disk is needed any more
+                channel.truncate(0);
+            } else {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Screenshot metadata journal write failed, disabling it: {}", e.getMessage());
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // already failing
+            }
+            channel = null;
+        }
+    }
+
+    private List<PendingCapture> readExisting() {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyList();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Record record = GSON.fromJson(line, Record.class);
+                    if (record != null && record.id != null && record.type != null) {
+                        apply(pending, record);
+                    }
+                } catch (JsonParseException e) {
+                    // A torn final line from a crash mid-write; everything before it is intact
+                    ScreenshotMetadataCore.LOGGER.debug("Ignoring unreadable journal line: {}", e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Could not read screenshot metadata journal: {}", e.getMessage());
+        }
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * Replaces the journal with just the records of the recovered jobs, so finished jobs of old sessions do not pile up.
+     */
+    private void rewritePending() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+        try {
+            StringBuilder out = new StringBuilder();
+            for (PendingCapture job : pending.values()) {
+                for (Record record : job.toRecords()) {
+                    out.append(GSON.toJson(record)).append('\n');
+                }
+            }
+            Files.writeString(temp, out, StandardCharsets.UTF_8);
+            try (FileChannel sync = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                sync.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException atomicFailure) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void apply(Map<String, PendingCapture> pending, Record record) {
+        switch (record.type) {
+            case CAPTURE -> {
+                if (record.snapshot != null) {
+                    pending.put(record.id, new PendingCapture(record.snapshot));
+                }
+            }
+            case RESOLVED -> {
+                PendingCapture job = pending.get(record.id);
+                if (job != null && record.file != null) {
+                    job.resolvedFile = record.file;
+                }
+            }
+            case SINK -> {
+                PendingCapture job = pending.get(record.id);
+                if (job != null && record.sink != null) {
+                    job.confirmedSinks.put(record.sink, record.values != null ? record.values : Map.of());
+                }
+            }
+            case DONE -> pending.remove(record.id);
+            default -> ScreenshotMetadataCore.LOGGER.debug("Unknown journal record type: {}", record.type);
+        }
+    }
+
+    /**
+     * A journaled job that has not completed, with whatever progress was recorded for it.
+     */
+    static final class PendingCapture {
+        private final CaptureSnapshot snapshot;
+        private final Map<String, Map<String, String>> confirmedSinks = new LinkedHashMap<>();
+        private String resolvedFile;
+
+        private PendingCapture(CaptureSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        CaptureSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        File getResolvedFile() {
+            return resolvedFile != null ? new File(resolvedFile) : null;
+        }
+
+        /**
+         * Sinks that already finished, with the values each of them added to the metadata.
+         */
+        Map<String, Map<String, String>> getConfirmedSinks() {
+            return confirmedSinks;
+        }
+
+        private List<Record> toRecords() {
+            List<Record> records = new ArrayList<>();
+            Record capture = new Record(CAPTURE, snapshot.getId());
+            capture.snapshot = snapshot;
+            records.add(capture);
+            if (resolvedFile != null) {
+                Record resolved = new Record(RESOLVED, snapshot.getId());
+                resolved.file = resolvedFile;
+                records.add(resolved);
+            }
+            for (Map.Entry<String, Map<String, String>> sink : confirmedSinks.entrySet()) {
+                Record confirmed = new Record(SINK, snapshot.getId());
+                confirmed.sink = sink.getKey();
+                confirmed.values = sink.getValue().isEmpty() ? null : sink.getValue();
+                records.add(confirmed);
+            }
+            return records;
+        }
+    }
+
+    private static final class Record {
+        private String type;
+        private String id;
+        private CaptureSnapshot snapshot;
+        private String file;
+        private String sink;
+        private Map<String, String> values;
+
+        private Record(String type, String id) {
+            this.type = type;
+            this.id = id;
+        }
+    }
+
+    private static final class Append {
+        private final Record record;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        private Append(Record record) {
+            this.record = record;
+        }
+    }
+}
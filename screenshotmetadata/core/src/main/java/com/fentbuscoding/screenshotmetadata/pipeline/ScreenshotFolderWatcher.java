@@ -0,0 +1,386 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.DuplicateMode;
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PngMetadataWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteResult;
+import com.fentbuscoding.screenshotmetadata.metadata.ScreenshotHashIndex;
+import com.fentbuscoding.screenshotmetadata.metadata.XmpSidecarWriter;
+import com.fentbuscoding.screenshotmetadata.thumbnail.ScreenshotThumbnails;
+import com.fentbuscoding.screenshotmetadata.timelapse.TimelapseSession;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Indexes PNGs that reach the screenshots folder without going through the game's capture, such
+ * as panorama or replay renders from other mods and manual copies. Each one gets its content hash
+ * recorded in the duplicate index, a thumbnail and the enabled sidecars; the PNG itself is left
+ * as its producer wrote it.
+ *
+ * <p>Runs on one minimum-priority daemon thread while {@code watchScreenshotsFolder} is on. A file
+ * is picked up once it has not changed for a while, files the mod wrote or already processed are
+ * skipped, and at most {@code watchFolderMaxFilesPerMinute} files are indexed per minute so a
+ * mass copy trickles in behind the game instead of competing with it.
+ */
+public final class ScreenshotFolderWatcher {
+    // A file must be unchanged this long before it is read, so copies still in progress are left alone
+    private static final long QUIET_MILLIS = 2_000L;
+    private static final long POLL_MILLIS = 250L;
+    private static final long DISABLED_POLL_MILLIS = 2_000L;
+    private static final int MAX_BURST = 5;
+    private static final int MAX_READ_ATTEMPTS = 5;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private final Path root;
+    private final Map<Path, Pending> pending = new LinkedHashMap<>();
+    private WatchService watchService;
+    private long watchingSinceMillis;
+    private double tokens;
+    private long refilledAtNanos;
+    private int indexed;
+
+    private ScreenshotFolderWatcher(Path root) {
+        this.root = root;
+    }
+
+    public static void start(File screenshotsDirectory) {
+        if (screenshotsDirectory == null || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        ScreenshotFolderWatcher watcher = new ScreenshotFolderWatcher(screenshotsDirectory.toPath().toAbsolutePath());
+        Thread thread = new Thread(watcher::run, "Screenshot Metadata Folder Watcher");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+                if (!config.isWatchScreenshotsFolder()) {
+                    // The setting can be turned on and off from the config screen at any time
+                    stopWatching();
+                    Thread.sleep(DISABLED_POLL_MILLIS);
+                    continue;
+                }
+                if (watchService == null && !startWatching()) {
+                    Thread.sleep(DISABLED_POLL_MILLIS);
+                    continue;
+                }
+
+                WatchKey key = watchService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    collectEvents(key);
+                    key = watchService.poll();
+                }
+                processSettledFiles(config);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // shutting down
+        } finally {
+            stopWatching();
+        }
+    }
+
+    private boolean startWatching() {
+        try {
+            Files.createDirectories(root);
+            watchService = FileSystems.getDefault().newWatchService();
+            watchingSinceMillis = System.currentTimeMillis();
+            registerTree(root, false);
+            ScreenshotMetadataCore.LOGGER.debug("Watching {} for screenshots from other sources", root);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Screenshot folder watching unavailable: {}", e.getMessage());
+            stopWatching();
+            return false;
+        }
+    }
+
+    private void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+            watchService = null;
+        }
+        pending.clear();
+    }
+
+    /**
+     * Registers a directory and its subdirectories, skipping the mod's own hidden folders and the
+     * timelapse tree. PNGs already inside are queued only for directories that appeared while
+     * watching, since they may have been filled before their watch was in place.
+     */
+    private void registerTree(Path start, boolean queueExisting) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root) && isExcluded(root.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (queueExisting) {
+                    touch(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void collectEvents(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                ScreenshotMetadataCore.LOGGER.debug("Screenshot folder events overflowed, rescanning {}", root);
+                rescan();
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerTree(path, true);
+                } catch (IOException e) {
+                    ScreenshotMetadataCore.LOGGER.debug("Could not watch {}: {}", path, e.getMessage());
+                }
+                continue;
+            }
+            touch(path);
+        }
+        key.reset();
+    }
+
+    /**
+     * Queues every PNG changed since watching started, after events were lost.
+     */
+    private void rescan() {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(root) && isExcluded(root.relativize(dir))
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.lastModifiedTime().toMillis() >= watchingSinceMillis) {
+                        touch(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Screenshot folder rescan failed: {}", e.getMessage());
+        }
+    }
+
+    private void touch(Path file) {
+        if (!isCandidate(file)) {
+            return;
+        }
+        Pending entry = pending.get(file);
+        if (entry == null) {
+            pending.put(file, new Pending(System.nanoTime(), file.toFile().length()));
+        } else {
+            entry.changed(System.nanoTime(), file.toFile().length());
+        }
+    }
+
+    /**
+     * Indexes the files that have settled, oldest event first, as far as the rate limit allows.
+     * Files that are not ready yet stay queued and are looked at again on the next pass.
+     */
+    private void processSettledFiles(ScreenshotMetadataConfig config) throws InterruptedException {
+        long now = System.nanoTime();
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(QUIET_MILLIS);
+        Iterator<Map.Entry<Path, Pending>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Pending> entry = iterator.next();
+            Path file = entry.getKey();
+            Pending state = entry.getValue();
+            if (now - state.changedAtNanos < quietNanos) {
+                continue;
+            }
+            if (!Files.isRegularFile(file)) {
+                iterator.remove();
+                continue;
+            }
+            long size = file.toFile().length();
+            if (size != state.size || size == 0L) {
+                state.changed(now, size);
+                continue;
+            }
+            if (!ScreenshotPipeline.get().isIdle()) {
+                // A capture in flight may be about to claim this file; check again once it is done
+                return;
+            }
+            if (hasSidecar(file.toFile())) {
+                // Game screenshots and files indexed before; free to check, so not rate-limited
+                iterator.remove();
+                continue;
+            }
+            if (!tryAcquire(config.getWatchFolderMaxFilesPerMinute())) {
+                return;
+            }
+
+            FrameBudget.get().awaitQuiet(config.getBackgroundMaxDeferMillis());
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (index(file.toFile(), config) || ++state.attempts >= MAX_READ_ATTEMPTS) {
+                iterator.remove();
+            } else {
+                state.changed(System.nanoTime(), size);
+            }
+        }
+        if (pending.isEmpty() && indexed > 0) {
+            ScreenshotMetadataCore.LOGGER.info("Indexed {} screenshot(s) added to the screenshots folder by other sources", indexed);
+            indexed = 0;
+        }
+    }
+
+    /**
+     * Records the hash, makes the thumbnail and writes the sidecars for one file.
+     *
+     * @return false if the file could not be read as a complete PNG and should be retried
+     */
+    private boolean index(File file, ScreenshotMetadataConfig config) {
+        try {
+            if (PngMetadataWriter.hasContentHash(file)) {
+                // Written by the mod, with its sidecars turned off
+                return true;
+            }
+            DuplicateMode duplicateMode = DuplicateMode.fromId(config.getDuplicateHandling());
+            PngWriteResult identity = PngMetadataWriter.inspect(file, duplicateMode);
+            if (duplicateMode != DuplicateMode.OFF) {
+                ScreenshotHashIndex.forDirectory(file.getParentFile()).record(identity.getContentHash(), file);
+            }
+            ScreenshotThumbnails.onScreenshotImported(file);
+
+            Map<String, String> metadata = new LinkedHashMap<>();
+            metadata.put("Source", "Imported");
+            metadata.put("Timestamp", Instant.ofEpochMilli(file.lastModified()).toString());
+            metadata.put("ModVersion", ScreenshotMetadataCore.modVersion());
+            metadata.putAll(ScreenshotPipeline.identityValues(identity));
+            Durability durability = Durability.fromId(config.getDurability());
+            if (config.isWriteXmpSidecar()) {
+                XmpSidecarWriter.writeSidecarFile(file, metadata, durability);
+            }
+            if (config.isWriteJsonSidecar()) {
+                JsonSidecarWriter.writeSidecarFile(file, metadata, null, durability);
+            }
+            indexed++;
+            ScreenshotMetadataCore.LOGGER.debug("Indexed screenshot {} from another source", file.getName());
+            return true;
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Screenshot {} is not readable yet: {}", file.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Game screenshots, renamed files and anything indexed before have a sidecar by the time they
+     * settle, unless sidecars are off; then the mod's {@code ContentHash} chunk gives them away.
+     */
+    private static boolean hasSidecar(File file) {
+        return XmpSidecarWriter.getXmpFile(file).exists() || JsonSidecarWriter.getJsonFile(file).exists();
+    }
+
+    private boolean isCandidate(Path file) {
+        Path relative = root.relativize(file);
+        String name = file.getFileName().toString();
+        // Temp files (.tmp), sidecars and the hash index never end in .png
+        return name.toLowerCase().endsWith(".png") && !isExcluded(relative);
+    }
+
+    /**
+     * Hidden entries (thumbnail cache, hash index, in-flight writes) and the timelapse tree, whose
+     * frames are written with their metadata already.
+     */
+    private static boolean isExcluded(Path relative) {
+        if (relative.getNameCount() > 0 && TimelapseSession.FOLDER_NAME.equals(relative.getName(0).toString())) {
+            return true;
+        }
+        for (Path part : relative) {
+            if (part.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryAcquire(int filesPerMinute) {
+        long now = System.nanoTime();
+        double capacity = Math.min(MAX_BURST, filesPerMinute);
+        if (refilledAtNanos == 0L) {
+            tokens = capacity;
+        } else {
+            tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * filesPerMinute / (double) TimeUnit.MINUTES.toNanos(1));
+        }
+        refilledAtNanos = now;
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    private static final class Pending {
+        private long changedAtNanos;
+        private long size;
+        private int attempts;
+
+        Pending(long changedAtNanos, long size) {
+            this.changedAtNanos = changedAtNanos;
+            this.size = size;
+        }
+
+        void changed(long nowNanos, long newSize) {
+            changedAtNanos = nowNanos;
+            size = newSize;
+        }
+    }
+}
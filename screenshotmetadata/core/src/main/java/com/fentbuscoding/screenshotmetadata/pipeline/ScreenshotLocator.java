@@ -0,0 +1,171 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Finds the file vanilla wrote for a capture. The game does not report the name, so the
+ * newest screenshot after the pre-save newest one is taken once it stops changing.
+ */
+final class ScreenshotLocator {
+    static final String SCREENSHOTS_DIR = "screenshots";
+    private static final long REPLAY_MATCH_WINDOW_MILLIS = 15_000L;
+
+    private ScreenshotLocator() {
+    }
+
+    /**
+     * Finds the newest screenshot file in the screenshots directory
+     */
+    static File findNewestScreenshot(File gameDirectory, File preSaveNewest) {
+        File screenshotsDir = new File(gameDirectory, SCREENSHOTS_DIR);
+        if (!screenshotsDir.exists() || !screenshotsDir.isDirectory()) {
+            ScreenshotMetadataCore.LOGGER.warn("Screenshots directory not found: {}", screenshotsDir.getPath());
+            return null;
+        }
+        
+        File[] files = screenshotsDir.listFiles((dir, name) ->
+            name.toLowerCase().endsWith(".png") && !name.startsWith("."));
+
+        if (files == null || files.length == 0) {
+            return null;
+        }
+
+        // Filter to only files newer than the pre-save newest file
+        if (preSaveNewest != null) {
+            final String preSaveName = preSaveNewest.getName();
+            files = Arrays.stream(files)
+                .filter(f -> f.getName().compareTo(preSaveName) > 0 || 
+                            (f.getName().equals(preSaveName) && f.lastModified() > preSaveNewest.lastModified()))
+                .toArray(File[]::new);
+            
+            if (files.length == 0) {
+                ScreenshotMetadataCore.LOGGER.debug("No new files found after: {}", preSaveName);
+                return null;
+            }
+        }
+
+        return Arrays.stream(files)
+            .max(Comparator.comparing(File::getName)
+                .thenComparingLong(File::lastModified))
+            .orElse(null);
+    }
+
+    /**
+     * Waits briefly for the newest screenshot file to appear and finish writing.
+     * Uses exponential backoff retry strategy.
+     */
+    static File waitForNewestScreenshot(File gameDirectory, File preSaveNewest) {
+        final int maxAttempts = 15;
+        final long initialSleepMillis = 100L;
+        final double backoffMultiplier = 1.5;
+        final long maxSleepMillis = 1000L;
+
+        File candidate = null;
+        long sleepMillis = initialSleepMillis;
+        
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            candidate = findNewestScreenshot(gameDirectory, preSaveNewest);
+            if (candidate != null && isFileStable(candidate)) {
+                ScreenshotMetadataCore.LOGGER.debug("Found screenshot file on attempt {}", attempt + 1);
+                return candidate;
+            }
+            
+            try {
+                Thread.sleep(sleepMillis);
+                sleepMillis = Math.min((long)(sleepMillis * backoffMultiplier), maxSleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Fallback: Check common locations if screenshot not found in screenshots dir
+        if (candidate == null) {
+            candidate = findScreenshotInFallbackLocations(gameDirectory, preSaveNewest);
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Attempts to find screenshot in common fallback locations if primary method fails.
+     */
+    private static File findScreenshotInFallbackLocations(File gameDirectory, File preSaveNewest) {
+        File[] fallbackDirs = {
+            gameDirectory,  // Game directory root
+            new File(System.getProperty("user.home"), "Downloads"),  // Downloads folder
+            new File(System.getProperty("java.io.tmpdir"))  // System temp directory
+        };
+
+        long preSaveTime = preSaveNewest != null ? preSaveNewest.lastModified() : System.currentTimeMillis() - 5000;
+
+        for (File fallbackDir : fallbackDirs) {
+            if (!fallbackDir.exists() || !fallbackDir.isDirectory()) {
+                continue;
+            }
+
+            File[] pngFiles = fallbackDir.listFiles((dir, name) ->
+                name.toLowerCase().endsWith(".png") && 
+                !name.startsWith(".") && 
+                new File(dir, name).lastModified() > preSaveTime);
+
+            if (pngFiles != null && pngFiles.length > 0) {
+                File newest = Arrays.stream(pngFiles)
+                    .max(Comparator.comparingLong(File::lastModified))
+                    .orElse(null);
+                
+                if (newest != null && isFileStable(newest)) {
+                    ScreenshotMetadataCore.LOGGER.debug("Found screenshot in fallback location: {}", newest.getAbsolutePath());
+                    return newest;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isFileStable(File file) {
+        try {
+            if (!file.exists()) {
+                return false;
+            }
+            long size1 = file.length();
+            long time1 = file.lastModified();
+            if (size1 <= 0L) {
+                return false;
+            }
+            Thread.sleep(100L);
+            long size2 = file.length();
+            long time2 = file.lastModified();
+            return size1 == size2 && time1 == time2;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Finds the screenshot of a capture that was interrupted before its file was recorded.
+     * Later screenshots may exist by now and the file may have been renamed, so this picks the
+     * earliest file written shortly after the capture rather than the newest one.
+     */
+    static File findWrittenAfterCapture(File gameDirectory, File preSaveNewest, long capturedAtMillis) {
+        File screenshotsDir = new File(gameDirectory, SCREENSHOTS_DIR);
+        File[] files = screenshotsDir.listFiles((dir, name) ->
+            name.toLowerCase().endsWith(".png") && !name.startsWith("."));
+        if (files == null) {
+            return null;
+        }
+
+        long earliest = capturedAtMillis - 1_000L;
+        long latest = capturedAtMillis + REPLAY_MATCH_WINDOW_MILLIS;
+        return Arrays.stream(files)
+            .filter(f -> preSaveNewest == null || !f.getName().equals(preSaveNewest.getName()))
+            .filter(f -> f.lastModified() >= earliest && f.lastModified() <= latest)
+            .min(Comparator.comparingLong(File::lastModified))
+            .orElse(null);
+    }
+}
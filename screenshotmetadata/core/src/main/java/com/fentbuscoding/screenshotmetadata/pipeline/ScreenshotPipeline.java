@@ -0,0 +1,468 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.DuplicateMode;
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PendingTempFiles;
+import com.fentbuscoding.screenshotmetadata.metadata.PngMetadataWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteOptions;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteResult;
+import com.fentbuscoding.screenshotmetadata.metadata.XmpSidecarWriter;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finishes captured screenshots off the render thread: finds the written file, applies the
+ * naming template and runs the PNG, XMP and JSON sinks. Every step is journaled so that a
+ * job interrupted by a crash is picked up again on the next start.
+ */
+public final class ScreenshotPipeline {
+    private static final String SINK_PNG = "png";
+    private static final String SINK_XMP = "xmp";
+    private static final String SINK_JSON = "json";
+    private static final long PNG_SINK_TIMEOUT_MILLIS = 30_000L;
+    private static final long SIDECAR_SINK_TIMEOUT_MILLIS = 10_000L;
+    private static final int WORKER_THREADS = 2;
+    private static final long SHUTDOWN_JOURNAL_FLUSH_MILLIS = 1_000L;
+    private static final ScreenshotPipeline INSTANCE = new ScreenshotPipeline();
+
+    private final ExecutorService executor;
+    private final Map<String, CaptureSnapshot> activeJobs = new ConcurrentHashMap<>();
+    private final AtomicBoolean accepting = new AtomicBoolean(true);
+    private MetadataJournal journal;
+
+    private ScreenshotPipeline() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "Screenshot Metadata Worker #" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ScreenshotPipeline get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Journals the capture and processes it once the journal record is durable.
+     *
+     * @return completes with the final screenshot file once the job has finished, or with
+     *         {@code null} if no file was found or the job was deferred to the next launch
+     */
+    public CompletableFuture<File> submit(CaptureSnapshot snapshot) {
+        if (!accepting.get()) {
+            // Still journaled, so the next launch finishes it
+            journal().recordCapture(snapshot);
+            ScreenshotMetadataCore.LOGGER.debug("Client is stopping, deferring screenshot metadata to the next launch");
+            return CompletableFuture.completedFuture(null);
+        }
+        activeJobs.put(snapshot.getId(), snapshot);
+        if (DirectScreenshotWriter.isEnabled(snapshot.getConfig())) {
+            DirectScreenshotWriter.offer(snapshot);
+        }
+        return journal().recordCapture(snapshot).handleAsync((ignored, error) ->
+            process(snapshot, null, Map.of(), false), executor);
+    }
+
+    /**
+     * Re-runs jobs the previous session journaled but never finished. Sinks that were already
+     * confirmed are skipped so nothing is written twice.
+     */
+    public void replayPending() {
+        List<MetadataJournal.PendingCapture> recovered = journal().recoveredJobs();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        ScreenshotMetadataCore.LOGGER.info("Resuming {} screenshot metadata job(s) interrupted in the last session", recovered.size());
+        for (MetadataJournal.PendingCapture job : recovered) {
+            activeJobs.put(job.getSnapshot().getId(), job.getSnapshot());
+            executor.execute(() -> process(job.getSnapshot(), job.getResolvedFile(), job.getConfirmedSinks(), true));
+        }
+    }
+
+    /**
+     * Whether no capture is currently being processed, so a new file in the screenshots folder
+     * cannot be one the pipeline is about to pick up.
+     */
+    public boolean isIdle() {
+        return activeJobs.isEmpty();
+    }
+
+    /**
+     * Stops accepting work and lets in-flight jobs finish within the timeout. Jobs that do not
+     * make it stay in the journal and resume on the next launch; their temp files are removed.
+     */
+    public void shutdown(long timeoutMillis) {
+        if (!accepting.compareAndSet(true, false)) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMillis));
+        int inFlight = activeJobs.size();
+        MetadataJournal journal = journal();
+
+        try {
+            // Captures still waiting on their journal record are handed to the executor once it is durable
+            journal.sync().get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+        } catch (Exception ignored) {
+            // fall through with whatever was handed over
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        int lost = activeJobs.size();
+        int deletedTempFiles = PendingTempFiles.deleteAll();
+        try {
+            journal.sync().get(SHUTDOWN_JOURNAL_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.warn("Screenshot metadata journal did not flush before shutdown: {}", e.getMessage());
+        }
+
+        if (lost > 0) {
+            ScreenshotMetadataCore.LOGGER.warn("{} of {} screenshot metadata job(s) did not finish before shutdown; "
+                + "they are journaled and resume on the next launch ({} temp file(s) removed)", lost, inFlight, deletedTempFiles);
+        } else if (inFlight > 0) {
+            ScreenshotMetadataCore.LOGGER.info("Finished {} screenshot metadata job(s) before shutdown", inFlight);
+        }
+    }
+
+    /**
+     * Records completion unless the worker was interrupted by shutdown, in which case the job
+     * stays journaled and resumes next launch.
+     */
+    private static void markDone(MetadataJournal journal, CaptureSnapshot snapshot) {
+        if (!Thread.currentThread().isInterrupted()) {
+            journal.recordDone(snapshot.getId());
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0L, deadline - System.nanoTime());
+    }
+
+    private synchronized MetadataJournal journal() {
+        if (journal == null) {
+            journal = MetadataJournal.open(ScreenshotMetadataCore.platform().configDirectory().resolve(MetadataJournal.FILE_NAME));
+        }
+        return journal;
+    }
+
+    /**
+     * Runs one job to completion and returns the final screenshot file, or {@code null} if
+     * there was none or the job is left journaled.
+     */
+    private File process(CaptureSnapshot snapshot,
+                         File resolvedFile,
+                         Map<String, Map<String, String>> confirmedSinks,
+                         boolean recovered) {
+        MetadataJournal journal = journal();
+        try {
+            ScreenshotMetadataCore.LOGGER.debug("Processing screenshot metadata...");
+
+            File screenshotFile = resolvedFile;
+            Map<String, String> directPngValues = null;
+            if (screenshotFile == null && !recovered) {
+                // The file may have been encoded from the frame with the metadata already in it
+                DirectScreenshotWriter.Written written = DirectScreenshotWriter.awaitWritten(snapshot.getId());
+                if (written != null) {
+                    screenshotFile = written.getFile();
+                    directPngValues = written.getPngValues();
+                }
+            }
+            if (screenshotFile == null) {
+                screenshotFile = recovered
+                    ? ScreenshotLocator.findWrittenAfterCapture(snapshot.getGameDirectory(), snapshot.getPreSaveNewest(), snapshot.getCapturedAtMillis())
+                    // Find the most recent screenshot file (wait briefly for file to finish writing)
+                    : ScreenshotLocator.waitForNewestScreenshot(snapshot.getGameDirectory(), snapshot.getPreSaveNewest());
+                if (screenshotFile == null) {
+                    ScreenshotMetadataCore.LOGGER.warn("No screenshot file found to add metadata to");
+                    markDone(journal, snapshot);
+                    return null;
+                }
+            } else if (resolvedFile != null && !screenshotFile.isFile()) {
+                ScreenshotMetadataCore.LOGGER.warn("Screenshot {} was removed before its metadata was written", screenshotFile.getName());
+                markDone(journal, snapshot);
+                return null;
+            }
+
+            Map<String, String> metadata = snapshot.copyMetadata();
+            if (resolvedFile == null) {
+                screenshotFile = maybeRenameScreenshot(screenshotFile, metadata, snapshot);
+                journal.recordResolved(snapshot.getId(), screenshotFile);
+            }
+            if (directPngValues != null) {
+                journal.recordSink(snapshot.getId(), SINK_PNG, directPngValues);
+                Map<String, Map<String, String>> withPng = new LinkedHashMap<>(confirmedSinks);
+                withPng.put(SINK_PNG, directPngValues);
+                confirmedSinks = withPng;
+            }
+
+            // Write the PNG and the sidecars once the game is not mid-stutter; quitting never waits
+            if (accepting.get()) {
+                long deferred = FrameBudget.get().awaitQuiet(snapshot.getConfig().getBackgroundMaxDeferMillis());
+                if (deferred > 0) {
+                    ScreenshotMetadataCore.LOGGER.debug("Deferred screenshot metadata for {} by {} ms while the game was busy",
+                        screenshotFile.getName(), deferred);
+                }
+            }
+            addMetadataToScreenshot(snapshot, screenshotFile, metadata, confirmedSinks);
+            if (Thread.currentThread().isInterrupted()) {
+                ScreenshotMetadataCore.LOGGER.debug("Screenshot metadata job for {} interrupted, leaving it journaled", screenshotFile.getName());
+                return null;
+            }
+            markDone(journal, snapshot);
+
+            ScreenshotMetadataCore.LOGGER.info("Successfully added metadata to screenshot: {}", screenshotFile.getName());
+            return screenshotFile;
+
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.error("Failed to process screenshot metadata", e);
+            markDone(journal, snapshot);
+            return null;
+        } finally {
+            activeJobs.remove(snapshot.getId());
+        }
+    }
+
+    /**
+     * Runs the PNG, XMP and JSON sinks concurrently, each bounded by its own timeout. Sinks a
+     * previous attempt already confirmed are skipped.
+     * <p>
+     * The content hash only exists once the PNG sink has copied the image data, so the JSON
+     * sidecar (the one that carries it) is written without it and rewritten with it once every
+     * sink has finished. While the PNG sink runs in the same job, the JSON sidecar is journaled
+     * only after that rewrite, so a crash in between replays it with the hash the journal
+     * recorded for the PNG.
+     */
+    private void addMetadataToScreenshot(CaptureSnapshot snapshot,
+                                         File screenshotFile,
+                                         Map<String, String> metadata,
+                                         Map<String, Map<String, String>> confirmedSinks) {
+        ScreenshotMetadataConfig config = snapshot.getConfig();
+        String jobId = snapshot.getId();
+        if (confirmedSinks.containsKey(SINK_PNG)) {
+            metadata.putAll(confirmedSinks.get(SINK_PNG));
+        }
+        boolean writePng = config.isWritePngMetadata() && !confirmedSinks.containsKey(SINK_PNG);
+        boolean writeXmp = config.isWriteXmpSidecar() && !confirmedSinks.containsKey(SINK_XMP);
+        boolean writeJson = config.isWriteJsonSidecar() && !confirmedSinks.containsKey(SINK_JSON);
+        Durability durability = Durability.fromId(config.getDurability());
+
+        Future<Map<String, String>> pngIdentity = null;
+        Future<?> jsonSink = null;
+        try (SinkScope scope = new SinkScope("Screenshot Metadata Sink")) {
+            if (writePng) {
+                PngWriteOptions pngOptions = pngWriteOptions(config);
+                Map<String, String> pngMetadata = new LinkedHashMap<>(metadata);
+                pngIdentity = scope.fork(SINK_PNG, PNG_SINK_TIMEOUT_MILLIS,
+                    () -> writePngSink(jobId, screenshotFile, pngMetadata, pngOptions));
+            }
+            if (writeXmp) {
+                scope.fork(SINK_XMP, SIDECAR_SINK_TIMEOUT_MILLIS, () -> {
+                    XmpSidecarWriter.writeSidecarFile(screenshotFile, metadata, durability);
+                    if (!Thread.currentThread().isInterrupted()) {
+                        journal().recordSink(jobId, SINK_XMP, null);
+                    }
+                    return null;
+                });
+            }
+            if (writeJson) {
+                jsonSink = scope.fork(SINK_JSON, SIDECAR_SINK_TIMEOUT_MILLIS, () -> {
+                    JsonSidecarWriter.writeSidecarFile(screenshotFile, metadata, snapshot.getSidecarContext(), durability);
+                    if (!writePng && !Thread.currentThread().isInterrupted()) {
+                        journal().recordSink(jobId, SINK_JSON, null);
+                    }
+                    return null;
+                });
+            }
+
+            scope.join();
+        } catch (InterruptedException e) {
+            // Shutdown gave up on this job; closing the scope cancelled its sinks
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (!writePng || !isCompleted(jsonSink)) {
+            return;
+        }
+        Map<String, String> identity = completedValue(pngIdentity);
+        if (identity != null && !identity.isEmpty()) {
+            Map<String, String> withIdentity = new LinkedHashMap<>(metadata);
+            withIdentity.putAll(identity);
+            JsonSidecarWriter.writeSidecarFile(screenshotFile, withIdentity, snapshot.getSidecarContext(), durability);
+        }
+        journal().recordSink(jobId, SINK_JSON, null);
+    }
+
+    /**
+     * Writes the PNG metadata and returns the image identity (hash and duplicate reference) the
+     * write produced, or an empty map if it failed.
+     */
+    private Map<String, String> writePngSink(String jobId, File screenshotFile, Map<String, String> metadata,
+                                             PngWriteOptions options) {
+        PngWriteResult pngResult = writePngMetadataWithRetry(screenshotFile, metadata, options);
+        if (pngResult == null) {
+            if (!Thread.currentThread().isInterrupted()) {
+                ScreenshotMetadataCore.LOGGER.error("Failed to write PNG metadata to {}", screenshotFile.getName());
+            }
+            return Map.of();
+        }
+        Map<String, String> identity = identityValues(pngResult);
+        journal().recordSink(jobId, SINK_PNG, identity);
+        return identity;
+    }
+
+    static PngWriteOptions pngWriteOptions(ScreenshotMetadataConfig config) {
+        return new PngWriteOptions(
+            config.getPngTextCompressionThreshold(),
+            config.getParallelEncodeMinPixels(),
+            DuplicateMode.fromId(config.getDuplicateHandling()),
+            config.isEmbedXmpInPng(),
+            Durability.fromId(config.getDurability())
+        );
+    }
+
+    static Map<String, String> identityValues(PngWriteResult result) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (result.getContentHash() != null) {
+            values.put(PngMetadataWriter.CONTENT_HASH_KEY, result.getContentHash());
+        }
+        if (result.getDuplicateOf() != null) {
+            values.put(PngMetadataWriter.DUPLICATE_OF_KEY, result.getDuplicateOf());
+        }
+        return values;
+    }
+
+    /**
+     * Whether a sink finished without failing, timing out or being cancelled.
+     */
+    private static boolean isCompleted(Future<?> sink) {
+        return sink != null && sink.state() == Future.State.SUCCESS;
+    }
+
+    private static <T> T completedValue(Future<T> sink) {
+        return isCompleted(sink) ? sink.resultNow() : null;
+    }
+
+    private static File maybeRenameScreenshot(File screenshotFile, Map<String, String> metadata, CaptureSnapshot snapshot) {
+        ScreenshotMetadataConfig config = snapshot.getConfig();
+        if (screenshotFile == null || !config.isRenameScreenshots()) {
+            return screenshotFile;
+        }
+        String template = config.getScreenshotNameTemplate();
+        if (template == null || template.isBlank()) {
+            return screenshotFile;
+        }
+
+        String baseName = applyTemplate(template, metadata, snapshot.getCapturedAtMillis());
+        baseName = sanitizeFileName(baseName);
+        if (baseName.isBlank()) {
+            return screenshotFile;
+        }
+
+        File parent = screenshotFile.getParentFile();
+        File target = new File(parent, baseName + ".png");
+        if (target.equals(screenshotFile)) {
+            return screenshotFile;
+        }
+
+        int suffix = 1;
+        while (target.exists()) {
+            target = new File(parent, baseName + "_" + suffix + ".png");
+            suffix++;
+        }
+
+        try {
+            Files.move(screenshotFile.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (Exception atomicFailure) {
+            try {
+                Files.move(screenshotFile.toPath(), target.toPath());
+                return target;
+            } catch (Exception e) {
+                ScreenshotMetadataCore.LOGGER.warn("Failed to rename screenshot {} to {}: {}",
+                    screenshotFile.getName(), target.getName(), e.getMessage());
+                return screenshotFile;
+            }
+        }
+    }
+
+    private static String applyTemplate(String template, Map<String, String> metadata, long capturedAtMillis) {
+        // Use the capture time, not the processing time, so replayed jobs get the same name
+        LocalDateTime capturedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(capturedAtMillis), ZoneId.systemDefault());
+        String date = capturedAt.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        String time = capturedAt.format(DateTimeFormatter.ofPattern("HH-mm-ss"));
+        String datetime = date + "_" + time;
+
+        String result = template;
+        result = result.replace("{date}", date);
+        result = result.replace("{time}", time);
+        result = result.replace("{datetime}", datetime);
+        result = result.replace("{dimension}", metadata.getOrDefault("Dimension", "Unknown"));
+        result = result.replace("{biome}", metadata.getOrDefault("Biome", "Unknown"));
+        result = result.replace("{x}", metadata.getOrDefault("X", "NA"));
+        result = result.replace("{y}", metadata.getOrDefault("Y", "NA"));
+        result = result.replace("{z}", metadata.getOrDefault("Z", "NA"));
+        result = result.replace("{world}", metadata.getOrDefault("WorldName", "World"));
+        result = result.replace("{player}", metadata.getOrDefault("Username", "Player"));
+        return result;
+    }
+
+    private static String sanitizeFileName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.replaceAll("[\\\\/:*?\"<>|]", "_").trim();
+    }
+
+    private static PngWriteResult writePngMetadataWithRetry(File screenshotFile,
+                                                     Map<String, String> metadata,
+                                                     PngWriteOptions options) {
+        final int maxAttempts = 3;
+        final long sleepMillis = 200L;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return PngMetadataWriter.writeMetadata(screenshotFile, metadata, options);
+            } catch (Exception e) {
+                ScreenshotMetadataCore.LOGGER.debug("PNG metadata write attempt {} failed for {}: {}",
+                    attempt, screenshotFile.getName(), e.getMessage());
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.fentbuscoding.screenshotmetadata.pipeline;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the sinks of one screenshot job side by side, each on its own virtual thread with its own
+ * deadline. Sinks that miss their deadline are cancelled, and closing the scope cancels and
+ * reaps whatever is left, so no sink outlives the job that forked it.
+ */
+final class SinkScope implements AutoCloseable {
+    private static final long CLOSE_GRACE_MILLIS = 1_000L;
+
+    private final ExecutorService executor;
+    private final List<Task> tasks = new ArrayList<>();
+
+    SinkScope(String name) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + " #", 1).factory());
+    }
+
+    /**
+     * Starts a task that must finish within the timeout, counted from now.
+     */
+    <T> Future<T> fork(String name, long timeoutMillis, Callable<T> body) {
+        Future<T> future = executor.submit(body);
+        tasks.add(new Task(name, timeoutMillis, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), future));
+        return future;
+    }
+
+    /**
+     * Waits until every forked task has finished or passed its deadline. Late tasks are cancelled
+     * and failures are logged; neither stops the other tasks.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted; the scope should then be closed
+     */
+    void join() throws InterruptedException {
+        for (Task task : tasks) {
+            try {
+                task.future.get(Math.max(0L, task.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                task.future.cancel(true);
+                ScreenshotMetadataCore.LOGGER.warn("Screenshot metadata sink '{}' did not finish within {} ms and was cancelled",
+                    task.name, task.timeoutMillis);
+            } catch (ExecutionException e) {
+                ScreenshotMetadataCore.LOGGER.error("Screenshot metadata sink '{}' failed", task.name, e.getCause());
+            } catch (CancellationException ignored) {
+                // cancelled by another task or the scope
+            }
+        }
+    }
+
+    /**
+     * Cancels unfinished tasks and waits briefly for their threads to end.
+     */
+    @Override
+    public void close() {
+        for (Task task : tasks) {
+            task.future.cancel(true);
+        }
+        executor.shutdownNow();
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (!executor.awaitTermination(CLOSE_GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+                ScreenshotMetadataCore.LOGGER.debug("Screenshot metadata sinks still running after cancellation");
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Task {
+        private final String name;
+        private final long timeoutMillis;
+        private final long deadline;
+        private final Future<?> future;
+
+        private Task(String name, long timeoutMillis, long deadline, Future<?> future) {
+            this.name = name;
+            this.timeoutMillis = timeoutMillis;
+            this.deadline = deadline;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.fentbuscoding.screenshotmetadata.thumbnail;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.PngMetadataWriter;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Entry points for producing thumbnails: from the in-memory frame at capture time, and from
+ * PNG files already on disk for the background backfill.
+ */
+public final class ScreenshotThumbnails {
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private ScreenshotThumbnails() {
+    }
+
+    /**
+     * Creates the thumbnail for a freshly written screenshot from the pixels that were just encoded,
+     * so the PNG never has to be decoded again. The cache key is the content hash the encoder
+     * returned; the file is only read to hash it when the game wrote it and none is known.
+     */
+    public static void onScreenshotWritten(File screenshotFile, ThumbnailScaler.RowSource pixels, String contentHash) {
+        ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+        if (config.getThumbnailSize() <= 0 || screenshotFile == null) {
+            return;
+        }
+        try {
+            ThumbnailCache cache = cacheFor(screenshotFile, config);
+            if (contentHash == null) {
+                contentHash = PngMetadataWriter.hashImageData(screenshotFile);
+            }
+            if (!cache.contains(contentHash)) {
+                cache.store(contentHash, ThumbnailScaler.scale(pixels, config.getThumbnailSize()));
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not create thumbnail for {}: {}", screenshotFile.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the thumbnail for a screenshot that reached the folder without going through the
+     * game's capture, decoding it from disk.
+     */
+    public static void onScreenshotImported(File screenshotFile) {
+        ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+        if (config.getThumbnailSize() <= 0 || screenshotFile == null) {
+            return;
+        }
+        try {
+            generateFromFile(screenshotFile, config);
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not create thumbnail for {}: {}", screenshotFile.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the thumbnail for a screenshot on disk if it is not cached yet.
+     *
+     * @return true if a thumbnail was generated
+     */
+    static boolean generateFromFile(File screenshotFile, ScreenshotMetadataConfig config) throws IOException {
+        ThumbnailCache cache = cacheFor(screenshotFile, config);
+        String contentHash = PngMetadataWriter.hashImageData(screenshotFile);
+        if (cache.contains(contentHash)) {
+            return false;
+        }
+        BufferedImage decoded = decodeSubsampled(screenshotFile, config.getThumbnailSize());
+        cache.store(contentHash, ThumbnailScaler.scale(ThumbnailScaler.fromImage(decoded), config.getThumbnailSize()));
+        return true;
+    }
+
+    static boolean isCacheNearlyFull(File screenshotFile, ScreenshotMetadataConfig config) {
+        return cacheFor(screenshotFile, config).isNearlyFull();
+    }
+
+    private static ThumbnailCache cacheFor(File screenshotFile, ScreenshotMetadataConfig config) {
+        ThumbnailCache cache = ThumbnailCache.forScreenshotsDirectory(screenshotFile.getAbsoluteFile().getParentFile());
+        cache.setMaxBytes(config.getThumbnailCacheMaxMegabytes() * 1024L * 1024L);
+        return cache;
+    }
+
+    /**
+     * Decodes with source subsampling so that only about twice the thumbnail resolution is ever
+     * materialized; the box filter then does the final reduction.
+     */
+    private static BufferedImage decodeSubsampled(File file, int maxSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Cannot open " + file.getName());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for " + file.getName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestEdge / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
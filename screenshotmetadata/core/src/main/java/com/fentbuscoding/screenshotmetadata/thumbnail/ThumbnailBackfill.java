@@ -0,0 +1,77 @@
+package com.fentbuscoding.screenshotmetadata.thumbnail;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.pipeline.FrameBudget;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Generates thumbnails for screenshots taken before thumbnails existed.
+ * Runs once per session on a single minimum-priority daemon thread, newest screenshots first,
+ * pausing between files and while the game is busy so it never competes with it for long.
+ */
+public final class ThumbnailBackfill {
+    private static final long START_DELAY_MILLIS = 30_000L;
+    private static final long PAUSE_BETWEEN_FILES_MILLIS = 250L;
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+
+    private ThumbnailBackfill() {
+    }
+
+    public static void start(File screenshotsDirectory) {
+        if (screenshotsDirectory == null || !STARTED.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> run(screenshotsDirectory), "Screenshot Metadata Thumbnail Backfill");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private static void run(File screenshotsDirectory) {
+        try {
+            Thread.sleep(START_DELAY_MILLIS);
+            File[] screenshots = screenshotsDirectory.listFiles((dir, name) ->
+                name.toLowerCase().endsWith(".png") && !name.startsWith("."));
+            if (screenshots == null || screenshots.length == 0) {
+                return;
+            }
+            Arrays.sort(screenshots, Comparator.comparingLong(File::lastModified).reversed());
+
+            int generated = 0;
+            for (File screenshot : screenshots) {
+                ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+                if (config.getThumbnailSize() <= 0) {
+                    return;
+                }
+                if (ScreenshotThumbnails.isCacheNearlyFull(screenshot, config)) {
+                    // Older screenshots would only evict the newer thumbnails made just before
+                    break;
+                }
+                FrameBudget.get().awaitQuiet(config.getBackgroundMaxDeferMillis());
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    if (ScreenshotThumbnails.generateFromFile(screenshot, config)) {
+                        generated++;
+                        Thread.sleep(PAUSE_BETWEEN_FILES_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    ScreenshotMetadataCore.LOGGER.debug("Thumbnail backfill skipped {}: {}", screenshot.getName(), e.getMessage());
+                }
+            }
+            if (generated > 0) {
+                ScreenshotMetadataCore.LOGGER.info("Generated {} thumbnails for existing screenshots", generated);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.fentbuscoding.screenshotmetadata.thumbnail;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.metadata.PendingTempFiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed thumbnail store inside {@code screenshots/.thumbnails}.
+ * Thumbnails are named after the screenshot's {@code ContentHash}, so renamed or duplicated
+ * screenshots share one entry. Least recently used entries are evicted once the folder
+ * exceeds its size cap; file modification times double as the access order across restarts.
+ */
+public final class ThumbnailCache {
+    public static final String DIRECTORY_NAME = ".thumbnails";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final String HASH_PREFIX = "xxh64:";
+    private static final String EXTENSION = ".png";
+    private static final Map<Path, ThumbnailCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private boolean loaded;
+
+    private ThumbnailCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache for the given screenshots folder.
+     */
+    public static ThumbnailCache forScreenshotsDirectory(File screenshotsDirectory) {
+        Path key = screenshotsDirectory.toPath().toAbsolutePath().normalize().resolve(DIRECTORY_NAME);
+        return CACHES.computeIfAbsent(key, ThumbnailCache::new);
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        evictIfNeeded();
+    }
+
+    /**
+     * True once the cache is within 10% of its cap; further inserts would start evicting.
+     */
+    public synchronized boolean isNearlyFull() {
+        ensureLoaded();
+        return totalBytes >= maxBytes - maxBytes / 10;
+    }
+
+    public synchronized boolean contains(String contentHash) {
+        ensureLoaded();
+        return sizes.containsKey(key(contentHash));
+    }
+
+    /**
+     * Returns the thumbnail for the given content hash and marks it as recently used, or null if not cached.
+     */
+    public synchronized Path find(String contentHash) {
+        ensureLoaded();
+        String key = key(contentHash);
+        if (sizes.get(key) == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + EXTENSION);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            forget(key);
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Stores a thumbnail under the content hash, replacing nothing if it is already cached.
+     */
+    public void store(String contentHash, BufferedImage thumbnail) throws IOException {
+        String key = key(contentHash);
+        synchronized (this) {
+            ensureLoaded();
+            if (sizes.get(key) != null) {
+                // Lookup above already refreshed its LRU position
+                return;
+            }
+        }
+
+        // Encode outside the lock; concurrent stores of the same hash write identical bytes
+        Files.createDirectories(directory);
+        Path target = directory.resolve(key + EXTENSION);
+        Path temp = PendingTempFiles.register(Files.createTempFile(directory, key, ".tmp"));
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                if (!ImageIO.write(thumbnail, "png", out)) {
+                    throw new IOException("No PNG writer available");
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException atomicFailure) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            PendingTempFiles.release(temp);
+        }
+
+        synchronized (this) {
+            Long previous = sizes.put(key, Files.size(target));
+            totalBytes += sizes.get(key) - (previous != null ? previous : 0L);
+            evictIfNeeded();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not list thumbnail cache: {}", e.getMessage());
+            return;
+        }
+
+        Map<Path, Long> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            try {
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException ignored) {
+                // vanished while listing
+            }
+        }
+        modified.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+            .forEach(entry -> {
+                try {
+                    long size = Files.size(entry.getKey());
+                    String name = entry.getKey().getFileName().toString();
+                    sizes.put(name.substring(0, name.length() - EXTENSION.length()), size);
+                    totalBytes += size;
+                } catch (IOException ignored) {
+                    // vanished while listing
+                }
+            });
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey() + EXTENSION));
+            } catch (IOException e) {
+                ScreenshotMetadataCore.LOGGER.debug("Could not evict thumbnail {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void forget(String key) {
+        Long size = sizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private static String key(String contentHash) {
+        if (contentHash == null || contentHash.isBlank()) {
+            throw new IllegalArgumentException("Content hash must not be blank");
+        }
+        String key = contentHash.startsWith(HASH_PREFIX) ? contentHash.substring(HASH_PREFIX.length()) : contentHash;
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.digit(key.charAt(i), 16) < 0) {
+                throw new IllegalArgumentException("Content hash must be hexadecimal: " + contentHash);
+            }
+        }
+        return key;
+    }
+}
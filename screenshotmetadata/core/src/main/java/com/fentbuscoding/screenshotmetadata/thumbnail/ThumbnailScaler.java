@@ -0,0 +1,127 @@
+package com.fentbuscoding.screenshotmetadata.thumbnail;
+
+import java.awt.image.BufferedImage;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Box-filter downscaler. Every source pixel is added to exactly one destination cell and each
+ * cell is divided by its pixel count at the end, so a 4K frame is reduced in a single pass
+ * without intermediate images.
+ */
+public final class ThumbnailScaler {
+
+    /**
+     * Supplies one row of ARGB pixels at a time.
+     */
+    public interface RowSource {
+        int getWidth();
+
+        int getHeight();
+
+        void readRow(int y, int[] argb);
+    }
+
+    private ThumbnailScaler() {
+    }
+
+    public static RowSource fromImage(BufferedImage image) {
+        return new RowSource() {
+            @Override
+            public int getWidth() {
+                return image.getWidth();
+            }
+
+            @Override
+            public int getHeight() {
+                return image.getHeight();
+            }
+
+            @Override
+            public void readRow(int y, int[] argb) {
+                image.getRGB(0, y, image.getWidth(), 1, argb, 0, image.getWidth());
+            }
+        };
+    }
+
+    /**
+     * Adapts a per-pixel ARGB accessor, such as the game's native image, to a row source.
+     */
+    public static RowSource fromPixels(int width, int height, IntBinaryOperator argbAt) {
+        return new RowSource() {
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public void readRow(int y, int[] argb) {
+                for (int x = 0; x < width; x++) {
+                    argb[x] = argbAt.applyAsInt(x, y);
+                }
+            }
+        };
+    }
+
+    /**
+     * Scales the source so its longer edge is at most {@code maxSize} pixels (never upscales).
+     */
+    public static BufferedImage scale(RowSource source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (width <= 0 || height <= 0 || maxSize <= 0) {
+            throw new IllegalArgumentException("Invalid thumbnail dimensions");
+        }
+
+        double ratio = Math.min(1.0, maxSize / (double) Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        int[] columnOf = new int[width];
+        for (int x = 0; x < width; x++) {
+            columnOf[x] = (int) ((long) x * targetWidth / width);
+        }
+
+        int[] row = new int[width];
+        long[] red = new long[targetWidth];
+        long[] green = new long[targetWidth];
+        long[] blue = new long[targetWidth];
+        int[] counts = new int[targetWidth];
+        int[] output = new int[targetWidth];
+        BufferedImage thumbnail = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+
+        int targetRow = 0;
+        for (int y = 0; y < height; y++) {
+            source.readRow(y, row);
+            for (int x = 0; x < width; x++) {
+                int pixel = row[x];
+                int column = columnOf[x];
+                red[column] += (pixel >>> 16) & 0xFF;
+                green[column] += (pixel >>> 8) & 0xFF;
+                blue[column] += pixel & 0xFF;
+                counts[column]++;
+            }
+
+            int nextTargetRow = (int) ((long) (y + 1) * targetHeight / height);
+            if (nextTargetRow != targetRow || y == height - 1) {
+                for (int column = 0; column < targetWidth; column++) {
+                    int count = Math.max(1, counts[column]);
+                    output[column] = (int) (red[column] / count) << 16
+                        | (int) (green[column] / count) << 8
+                        | (int) (blue[column] / count);
+                    red[column] = 0;
+                    green[column] = 0;
+                    blue[column] = 0;
+                    counts[column] = 0;
+                }
+                thumbnail.setRGB(0, targetRow, targetWidth, 1, output, 0, targetWidth);
+                targetRow = nextTargetRow;
+            }
+        }
+        return thumbnail;
+    }
+}
@@ -0,0 +1,279 @@
+package com.fentbuscoding.screenshotmetadata.timelapse;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataCore;
+import com.fentbuscoding.screenshotmetadata.metadata.DuplicateMode;
+import com.fentbuscoding.screenshotmetadata.metadata.Durability;
+import com.fentbuscoding.screenshotmetadata.metadata.ParallelPngEncoder;
+import com.fentbuscoding.screenshotmetadata.metadata.PngMetadataWriter;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteOptions;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteResult;
+import com.google.gson.Gson;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One timelapse recording: a folder of numbered frames under {@code screenshots/timelapse/} and a
+ * {@code manifest.jsonl} with one line per frame, appended as frames are written.
+ * At most {@code maxInFlight} frames may be captured but not yet written; further triggers are
+ * dropped rather than queued, which bounds the frame memory held by the game's IO workers.
+ * Frames are requested on the render thread and written on whichever thread saves them.
+ */
+public final class TimelapseSession {
+    public static final String FOLDER_NAME = "timelapse";
+    public static final String MANIFEST_FILE_NAME = "manifest.jsonl";
+    // A requested frame that was not saved within this long is counted as lost
+    private static final long FRAME_EXPIRY_MILLIS = 10_000L;
+    private static final DateTimeFormatter FOLDER_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+    private static final Gson GSON = new Gson();
+
+    // Requested frames of every session by absolute path, so late frames still find a closed session
+    private static final Map<Path, Frame> PENDING = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final String relativeDirectory;
+    private final int maxInFlight;
+    private final long delayedAfterMillis;
+    private final PngWriteOptions pngOptions;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private BufferedWriter manifest;
+    private int inFlight;
+    private int nextFrame = 1;
+    private int written;
+    private int dropped;
+    private int delayed;
+    private boolean closing;
+
+    private TimelapseSession(Path directory, String relativeDirectory, int maxInFlight, long delayedAfterMillis,
+                             PngWriteOptions pngOptions, BufferedWriter manifest) {
+        this.directory = directory;
+        this.relativeDirectory = relativeDirectory;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.delayedAfterMillis = delayedAfterMillis;
+        this.pngOptions = pngOptions;
+        this.manifest = manifest;
+    }
+
+    /**
+     * Creates the session folder and its manifest.
+     *
+     * @param screenshotsDirectory The game's screenshots folder
+     * @param maxInFlight Frames that may be captured but not yet written
+     * @param delayedAfterMillis A frame whose write finishes later than this after its capture counts as delayed
+     * @param textCompressionThreshold PNG text compression threshold for the frames
+     */
+    public static TimelapseSession start(File screenshotsDirectory, int maxInFlight, long delayedAfterMillis,
+                                         int textCompressionThreshold) throws IOException {
+        String name = LocalDateTime.now().format(FOLDER_FORMAT);
+        Path directory = screenshotsDirectory.toPath().toAbsolutePath().resolve(FOLDER_NAME).resolve(name).normalize();
+        Files.createDirectories(directory);
+        BufferedWriter manifest = Files.newBufferedWriter(directory.resolve(MANIFEST_FILE_NAME), StandardCharsets.UTF_8);
+        // Frames are replaceable and plentiful: no duplicate index, no fsync
+        PngWriteOptions options = new PngWriteOptions(textCompressionThreshold, 0L, DuplicateMode.OFF, false, Durability.NONE);
+        return new TimelapseSession(directory, FOLDER_NAME + "/" + name, maxInFlight, delayedAfterMillis, options, manifest);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Reserves the next frame, or returns null and counts it as dropped if too many frames are still being written.
+     */
+    public synchronized Frame reserve(Map<String, String> metadata) {
+        if (closing) {
+            return null;
+        }
+        if (inFlight >= maxInFlight) {
+            dropped++;
+            return null;
+        }
+        inFlight++;
+        Frame frame = new Frame(this, nextFrame++, metadata);
+        PENDING.put(directory.resolve(frame.fileName), frame);
+        return frame;
+    }
+
+    /**
+     * Gives back a frame whose capture could not be started.
+     */
+    public void cancel(Frame frame) {
+        if (PENDING.remove(directory.resolve(frame.fileName), frame)) {
+            finish(frame, null, "not captured");
+        }
+    }
+
+    /**
+     * Counts frames that were requested but never saved as dropped, freeing their slots.
+     */
+    public void expireStale() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Frame> iterator = PENDING.values().iterator(); iterator.hasNext(); ) {
+            Frame frame = iterator.next();
+            if (frame.session == this && now - frame.requestedAtMillis > FRAME_EXPIRY_MILLIS) {
+                iterator.remove();
+                finish(frame, null, "lost");
+            }
+        }
+    }
+
+    /**
+     * Called by the thread saving an image. Encodes it with its metadata if the path is a requested frame.
+     *
+     * @return true if the frame was written, false if the caller must write the file itself
+     */
+    public static boolean writeFrame(Path path, ParallelPngEncoder.PixelSource pixels) {
+        Path key = path.toAbsolutePath().normalize();
+        Frame frame = PENDING.get(key);
+        if (frame == null) {
+            return false;
+        }
+        try {
+            PngWriteResult result = PngMetadataWriter.writeImage(key.toFile(), pixels, frame.metadata, frame.session.pngOptions);
+            if (PENDING.remove(key, frame)) {
+                frame.session.finish(frame, result.getContentHash(), null);
+            }
+            return true;
+        } catch (Exception e) {
+            ScreenshotMetadataCore.LOGGER.debug("Timelapse frame {} could not be encoded directly: {}", key.getFileName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Called after the game wrote an image itself, so a requested frame is still recorded in the manifest.
+     */
+    public static void onWrittenElsewhere(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        Frame frame = PENDING.remove(key);
+        if (frame != null) {
+            frame.session.finish(frame, null, null);
+        }
+    }
+
+    /**
+     * Stops taking frames. The manifest is completed with a summary once the last in-flight frame is written.
+     */
+    public synchronized void close() {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        if (inFlight == 0) {
+            writeSummary();
+        }
+    }
+
+    private synchronized void finish(Frame frame, String contentHash, String failure) {
+        inFlight--;
+        long latencyMillis = System.currentTimeMillis() - frame.requestedAtMillis;
+        if (failure != null) {
+            dropped++;
+        } else {
+            written++;
+            if (latencyMillis > delayedAfterMillis) {
+                delayed++;
+            }
+        }
+
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("frame", frame.index);
+        line.put("file", frame.fileName);
+        line.put("capturedAt", Instant.ofEpochMilli(frame.requestedAtMillis).toString());
+        line.put("latencyMs", latencyMillis);
+        if (failure != null) {
+            line.put("dropped", failure);
+        }
+        if (contentHash != null) {
+            line.put(PngMetadataWriter.CONTENT_HASH_KEY, contentHash);
+        }
+        if (failure == null) {
+            line.put("metadata", frame.metadata);
+        }
+        appendManifest(line);
+
+        if (closing && inFlight == 0) {
+            writeSummary();
+        }
+    }
+
+    private void writeSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("summary", true);
+        summary.put("frames", written);
+        summary.put("dropped", dropped);
+        summary.put("delayed", delayed);
+        summary.put("durationMs", System.currentTimeMillis() - startedAtMillis);
+        appendManifest(summary);
+        try {
+            if (manifest != null) {
+                manifest.close();
+            }
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.debug("Could not close timelapse manifest: {}", e.getMessage());
+        }
+        manifest = null;
+
+        if (dropped > 0 || delayed > 0) {
+            ScreenshotMetadataCore.LOGGER.warn("Timelapse {}: {} frames written, {} dropped, {} delayed",
+                relativeDirectory, written, dropped, delayed);
+        } else {
+            ScreenshotMetadataCore.LOGGER.info("Timelapse {}: {} frames written", relativeDirectory, written);
+        }
+    }
+
+    private void appendManifest(Map<String, Object> line) {
+        if (manifest == null) {
+            return;
+        }
+        try {
+            manifest.write(GSON.toJson(line));
+            manifest.newLine();
+            manifest.flush();
+        } catch (IOException e) {
+            ScreenshotMetadataCore.LOGGER.warn("Timelapse manifest write failed, continuing without it: {}", e.getMessage());
+            try {
+                manifest.close();
+            } catch (IOException ignored) {
+                // already failing
+            }
+            manifest = null;
+        }
+    }
+
+    /**
+     * A frame that was requested and has not been written yet.
+     */
+    public static final class Frame {
+        private final TimelapseSession session;
+        private final int index;
+        private final String fileName;
+        private final Map<String, String> metadata;
+        private final long requestedAtMillis = System.currentTimeMillis();
+
+        private Frame(TimelapseSession session, int index, Map<String, String> metadata) {
+            this.session = session;
+            this.index = index;
+            this.fileName = String.format("frame_%06d.png", index);
+            this.metadata = metadata;
+        }
+
+        /**
+         * The frame's file name relative to the screenshots folder, as the game's screenshot writer expects it.
+         */
+        public String getScreenshotFileName() {
+            return session.relativeDirectory + "/" + fileName;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fentbuscoding.screenshotmetadata;
+
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.nio.file.Path;
+
+/**
+ * {@link ClientPlatform} backed by Fabric Loader.
+ */
+final class FabricClientPlatform implements ClientPlatform {
+    private final String modVersion = FabricLoader.getInstance()
+        .getModContainer(ScreenshotMetadataCore.MOD_ID)
+        .map(container -> container.getMetadata().getVersion().getFriendlyString())
+        .orElse("unknown");
+
+    @Override
+    public Path configDirectory() {
+        return FabricLoader.getInstance().getConfigDir();
+    }
+
+    @Override
+    public Path gameDirectory() {
+        return FabricLoader.getInstance().getGameDir();
+    }
+
+    @Override
+    public String modVersion() {
+        return modVersion;
+    }
+}
@@ -1,9 +1,14 @@
 package com.fentbuscoding.screenshotmetadata;
 
+import com.fentbuscoding.screenshotmetadata.config.ConfigWatcher;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.pipeline.ScreenshotFolderWatcher;
+import com.fentbuscoding.screenshotmetadata.pipeline.ScreenshotPipeline;
+import com.fentbuscoding.screenshotmetadata.thumbnail.ThumbnailBackfill;
 import net.fabricmc.api.ClientModInitializer;
-import net.fabricmc.loader.api.FabricLoader;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import java.io.File;
 
 /**
  * Screenshot Metadata Mod
@@ -21,16 +26,29 @@ import org.slf4j.LoggerFactory;
  * @version 1.2.0
  */
 public class ScreenshotMetadataMod implements ClientModInitializer {
-    public static final String MOD_ID = "screenshotmetadata";
-    public static final String MOD_NAME = "Screenshot Metadata";
-    public static final String MOD_VERSION = FabricLoader.getInstance()
-            .getModContainer(MOD_ID)
-            .map(container -> container.getMetadata().getVersion().getFriendlyString())
-            .orElse("unknown");
-    public static final Logger LOGGER = LoggerFactory.getLogger(MOD_NAME);
+    public static final String MOD_ID = ScreenshotMetadataCore.MOD_ID;
+    public static final String MOD_NAME = ScreenshotMetadataCore.MOD_NAME;
+    public static final Logger LOGGER = ScreenshotMetadataCore.LOGGER;
+    public static final String MOD_VERSION;
+
+    static {
+        // Before anything reads the config or starts the pipeline
+        ScreenshotMetadataCore.install(new FabricClientPlatform());
+        MOD_VERSION = ScreenshotMetadataCore.modVersion();
+    }
 
     @Override
     public void onInitializeClient() {
         LOGGER.info("{} v{} initialized.", MOD_NAME, MOD_VERSION);
+
+        ConfigWatcher.start();
+        ScreenshotPipeline.get().replayPending();
+
+        File screenshotsDirectory = ScreenshotMetadataCore.platform().gameDirectory().resolve("screenshots").toFile();
+        if (ScreenshotMetadataConfig.get().getThumbnailSize() > 0) {
+            ThumbnailBackfill.start(screenshotsDirectory);
+        }
+        // Idles until watchScreenshotsFolder is turned on
+        ScreenshotFolderWatcher.start(screenshotsDirectory);
     }
 }
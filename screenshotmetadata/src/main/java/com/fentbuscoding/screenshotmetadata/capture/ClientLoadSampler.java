@@ -0,0 +1,66 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import com.fentbuscoding.screenshotmetadata.mixin.ChunkBuilderAccessor;
+import com.fentbuscoding.screenshotmetadata.mixin.WorldRendererAccessor;
+import com.fentbuscoding.screenshotmetadata.pipeline.FrameBudget;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.WorldRenderer;
+import net.minecraft.client.render.chunk.ChunkBuilder;
+
+/**
+ * Feeds {@link FrameBudget} and {@link FrameTimeRing} from the render thread: frame timing every
+ * frame, chunk-build backlog every few frames.
+ */
+public final class ClientLoadSampler {
+    private static final int CHUNK_SAMPLE_INTERVAL_FRAMES = 20;
+
+    // Render thread only
+    private static int framesSinceChunkSample = CHUNK_SAMPLE_INTERVAL_FRAMES;
+    private static int pendingChunkBuilds;
+
+    private ClientLoadSampler() {
+    }
+
+    public static void onFrame(MinecraftClient client) {
+        boolean idle = client.world == null || client.currentScreen != null || client.isPaused();
+        if (++framesSinceChunkSample >= CHUNK_SAMPLE_INTERVAL_FRAMES) {
+            framesSinceChunkSample = 0;
+            pendingChunkBuilds = idle ? 0 : samplePendingChunkBuilds(client);
+        }
+        long now = System.nanoTime();
+        FrameBudget.get().recordFrame(now, idle, pendingChunkBuilds);
+        FrameTimeRing.get().recordFrame(now);
+    }
+
+    /**
+     * Chunk sections queued for building right now, or -1 if the accessor mixins did not apply.
+     */
+    static int pendingChunkBuilds(MinecraftClient client) {
+        return accessorsApplied() ? samplePendingChunkBuilds(client) : -1;
+    }
+
+    /**
+     * Whether both accessor mixins were applied. Checked on the classes rather than on instances
+     * so the answer does not depend on a world renderer or chunk builder existing yet.
+     */
+    private static boolean accessorsApplied() {
+        return WorldRendererAccessor.class.isAssignableFrom(WorldRenderer.class)
+            && ChunkBuilderAccessor.class.isAssignableFrom(ChunkBuilder.class);
+    }
+
+    /**
+     * Chunk sections queued for building, read through the accessor mixins; 0 when they did not
+     * apply to this version.
+     */
+    private static int samplePendingChunkBuilds(MinecraftClient client) {
+        Object worldRenderer = client.worldRenderer;
+        if (!(worldRenderer instanceof WorldRendererAccessor rendererAccessor)) {
+            return 0;
+        }
+        Object chunkBuilder = rendererAccessor.screenshotmetadata$getChunkBuilder();
+        if (!(chunkBuilder instanceof ChunkBuilderAccessor builderAccessor)) {
+            return 0;
+        }
+        return builderAccessor.screenshotmetadata$getToBatchCount();
+    }
+}
@@ -0,0 +1,93 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import net.minecraft.entity.effect.StatusEffect;
+import net.minecraft.item.Item;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Display names of biomes, dimensions, items and status effects, formatted or translated once and
+ * then looked up by every capture. Translated names depend on the language, so the tables are
+ * cleared whenever the language files are reloaded (language change or resource reload).
+ * Render thread only, like the reload that clears them.
+ */
+public final class DisplayNameTables {
+    private static final Map<String, String> BIOMES = new HashMap<>();
+    private static final Map<String, String> DIMENSIONS = new HashMap<>();
+    private static final Map<Item, String> ITEMS = new IdentityHashMap<>();
+    private static final Map<StatusEffect, String> STATUS_EFFECTS = new IdentityHashMap<>();
+
+    private DisplayNameTables() {
+    }
+
+    /**
+     * Drops every cached name; called after the language manager reloads.
+     */
+    public static void invalidate() {
+        BIOMES.clear();
+        DIMENSIONS.clear();
+        ITEMS.clear();
+        STATUS_EFFECTS.clear();
+    }
+
+    /**
+     * Title-cased biome name from the path of its registry id, e.g. "dark_forest" to "Dark Forest".
+     */
+    static String biome(String biomePath) {
+        if (biomePath == null || biomePath.isEmpty()) {
+            return "Unknown";
+        }
+        return BIOMES.computeIfAbsent(biomePath, DisplayNameTables::titleCase);
+    }
+
+    /**
+     * Friendly dimension name for a dimension id such as "minecraft:the_nether".
+     */
+    static String dimension(String dimensionId) {
+        if (dimensionId == null || dimensionId.isEmpty()) {
+            return "Unknown";
+        }
+        return DIMENSIONS.computeIfAbsent(dimensionId, DisplayNameTables::formatDimension);
+    }
+
+    static String item(Item item) {
+        return ITEMS.computeIfAbsent(item, key -> key.getName().getString());
+    }
+
+    static String statusEffect(StatusEffect effect) {
+        return STATUS_EFFECTS.computeIfAbsent(effect, key -> key.getName().getString());
+    }
+
+    private static String formatDimension(String dimensionId) {
+        return switch (dimensionId) {
+            case "minecraft:overworld" -> "Overworld";
+            case "minecraft:the_nether" -> "Nether";
+            case "minecraft:the_end" -> "The End";
+            default -> titleCase(dimensionId.contains(":") ? dimensionId.split(":", 2)[1] : dimensionId);
+        };
+    }
+
+    /**
+     * Formats snake_case to Title Case
+     */
+    private static String titleCase(String name) {
+        if (name.isEmpty()) {
+            return "Unknown";
+        }
+
+        String[] words = name.replace("_", " ").split(" ");
+        StringBuilder titleCase = new StringBuilder();
+
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                titleCase.append(Character.toUpperCase(word.charAt(0)))
+                         .append(word.substring(1).toLowerCase())
+                         .append(" ");
+            }
+        }
+
+        return titleCase.toString().trim();
+    }
+}
@@ -0,0 +1,71 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import com.fentbuscoding.screenshotmetadata.metadata.ParallelPngEncoder;
+import com.fentbuscoding.screenshotmetadata.mixin.NativeImageAccessor;
+import net.minecraft.client.texture.NativeImage;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Exposes the off-heap pixel buffer of an RGBA {@link NativeImage} to the PNG encoder, row by
+ * row, without copying the image onto the heap. Only valid until the image is closed.
+ */
+public final class NativeImagePixels implements ParallelPngEncoder.PixelSource {
+    private static final int CHANNELS = 4;
+
+    private final ByteBuffer pixels;
+    private final int width;
+    private final int height;
+
+    private NativeImagePixels(ByteBuffer pixels, int width, int height) {
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns a view of the image's pixels, or null if the image is not plain RGBA, is closed, or
+     * the pointer accessor did not apply; callers then fall back to the vanilla write.
+     */
+    public static NativeImagePixels of(NativeImage image) {
+        if (image.getFormat() != NativeImage.Format.RGBA) {
+            return null;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long size = (long) width * height * CHANNELS;
+        if (width <= 0 || height <= 0 || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        if (!((Object) image instanceof NativeImageAccessor accessor)) {
+            return null;
+        }
+        long pointer = accessor.screenshotmetadata$getPointer();
+        if (pointer == 0L) {
+            return null;
+        }
+        return new NativeImagePixels(MemoryUtil.memByteBuffer(pointer, (int) size), width, height);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean hasAlpha() {
+        return true;
+    }
+
+    @Override
+    public void readRow(int y, byte[] target) {
+        // Absolute bulk get: safe for concurrent rows, and the bytes are already in PNG's RGBA order
+        pixels.get(y * width * CHANNELS, target, 0, width * CHANNELS);
+    }
+}
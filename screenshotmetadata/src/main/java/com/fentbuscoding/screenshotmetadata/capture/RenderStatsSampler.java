@@ -0,0 +1,97 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataMod;
+import com.fentbuscoding.screenshotmetadata.metadata.RenderStats;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Reads the F3 load counters for a capture. Runs on the render thread, so every read is a
+ * counter or a walk bounded by the view distance, never a scan of the whole world.
+ */
+final class RenderStatsSampler {
+    // Block entities are counted over at most this many chunks in each direction
+    private static final int MAX_CHUNK_RADIUS = 32;
+
+    private RenderStatsSampler() {
+    }
+
+    static RenderStats sample(MinecraftClient client) {
+        ClientWorld world = client.world;
+        if (world == null || client.player == null) {
+            return null;
+        }
+
+        long loadedChunks = -1L;
+        long blockEntities = -1L;
+        try {
+            loadedChunks = world.getChunkManager().getLoadedChunkCount();
+            blockEntities = countBlockEntities(client, world);
+        } catch (Exception | LinkageError e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not read chunk statistics: {}", e.getMessage());
+        }
+
+        long renderedEntities = -1L;
+        long totalEntities = -1L;
+        try {
+            totalEntities = world.getRegularEntityCount();
+            // "E: <rendered>/<total>, ..." is the only place the rendered count is exposed
+            renderedEntities = parseLeadingCount(client.worldRenderer.getEntitiesDebugString(), "E:");
+        } catch (Exception | LinkageError e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not read entity statistics: {}", e.getMessage());
+        }
+
+        long particles = -1L;
+        try {
+            particles = parseLeadingCount(client.particleManager.getDebugString(), null);
+        } catch (Exception | LinkageError e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not read particle statistics: {}", e.getMessage());
+        }
+
+        int pending = ClientLoadSampler.pendingChunkBuilds(client);
+        return new RenderStats(loadedChunks, pending >= 0 ? pending : -1L, renderedEntities, totalEntities,
+            blockEntities, particles);
+    }
+
+    private static long countBlockEntities(MinecraftClient client, ClientWorld world) {
+        int radius = Math.min(MAX_CHUNK_RADIUS, client.options.getViewDistance().getValue());
+        int centerX = client.player.getBlockX() >> 4;
+        int centerZ = client.player.getBlockZ() >> 4;
+        long count = 0L;
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(x, z);
+                if (chunk != null) {
+                    count += chunk.getBlockEntities().size();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parses the first integer after the prefix (or at the start), or -1 if there is none.
+     */
+    private static long parseLeadingCount(String debugText, String prefix) {
+        if (debugText == null) {
+            return -1L;
+        }
+        int start = 0;
+        if (prefix != null) {
+            int index = debugText.indexOf(prefix);
+            if (index < 0) {
+                return -1L;
+            }
+            start = index + prefix.length();
+        }
+        while (start < debugText.length() && !Character.isDigit(debugText.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < debugText.length() && Character.isDigit(debugText.charAt(end))) {
+            end++;
+        }
+        return end > start ? Long.parseLong(debugText.substring(start, end)) : -1L;
+    }
+}
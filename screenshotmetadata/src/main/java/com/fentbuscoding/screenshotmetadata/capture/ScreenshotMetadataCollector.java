@@ -0,0 +1,634 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataMod;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.metadata.JsonSidecarContext;
+import com.fentbuscoding.screenshotmetadata.metadata.JvmStats;
+import com.fentbuscoding.screenshotmetadata.metadata.RenderStats;
+import com.fentbuscoding.screenshotmetadata.pipeline.CaptureSnapshot;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.world.biome.Biome;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the game state that describes a screenshot.
+ * Must run on the render thread, in the same frame the screenshot is taken, so the
+ * snapshot matches the image and never races the client's own updates.
+ */
+public final class ScreenshotMetadataCollector {
+    private static final int MAX_MOD_LIST_ENTRIES = 200;
+
+    private ScreenshotMetadataCollector() {
+    }
+
+    /**
+     * Captures everything the pipeline needs to finish the screenshot later, or null if there is no player.
+     */
+    public static CaptureSnapshot capture(MinecraftClient client, File gameDirectory, File preSaveNewest) {
+        if (client == null || client.player == null) {
+            ScreenshotMetadataMod.LOGGER.warn("Cannot add metadata: client or player is null");
+            return null;
+        }
+        if (gameDirectory == null) {
+            ScreenshotMetadataMod.LOGGER.warn("Cannot add metadata: game directory is null");
+            return null;
+        }
+
+        // One config snapshot for the whole capture, even if it is edited or reloaded meanwhile
+        ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+        Map<String, String> metadata = collectMetadata(client, config);
+        if (metadata.isEmpty()) {
+            ScreenshotMetadataMod.LOGGER.warn("No metadata collected");
+            return null;
+        }
+        return new CaptureSnapshot(gameDirectory, preSaveNewest, System.currentTimeMillis(),
+            metadata, collectJsonSidecarContext(client, config), config);
+    }
+
+    /**
+     * Collects comprehensive metadata from the game state
+     */
+    private static Map<String, String> collectMetadata(MinecraftClient client, ScreenshotMetadataConfig config) {
+        Map<String, String> metadata = new LinkedHashMap<>();
+        
+        try {
+            // Player information
+            if (client.getSession() != null && client.getSession().getUsername() != null) {
+                metadata.put("Username", client.getSession().getUsername());
+            }
+            if (client.player != null && client.player.getUuid() != null) {
+                metadata.put("PlayerUuid", client.player.getUuid().toString());
+            }
+            
+            // Player coordinates
+            if (config.isIncludeCoordinates() && client.player != null) {
+                int x = (int) client.player.getX();
+                int y = (int) client.player.getY();
+                int z = (int) client.player.getZ();
+                if (config.isPrivacyMode()) {
+                    x = roundToNearest(x, 100);
+                    y = roundToNearest(y, 100);
+                    z = roundToNearest(z, 100);
+                    metadata.put("CoordinatesObfuscated", "true");
+                }
+                metadata.put("X", String.valueOf(x));
+                metadata.put("Y", String.valueOf(y));
+                metadata.put("Z", String.valueOf(z));
+                metadata.put("Yaw", String.format("%.1f", client.player.getYaw()));
+                metadata.put("Pitch", String.format("%.1f", client.player.getPitch()));
+                metadata.put("Facing", getFacingDirection(client.player.getYaw()));
+            }
+            
+            // World and biome information
+            WorldSessionContext session = WorldSessionContext.current(client);
+            if (session != null && client.player != null) {
+                metadata.put("World", session.getDimensionId());
+                metadata.put("DimensionId", session.getDimensionId());
+                metadata.put("Dimension", session.getDimensionName());
+
+                if (config.isIncludeBiomeInfo()) {
+                    String biomeName = getBiomeName(client);
+                    if (biomeName != null && !biomeName.isEmpty()) {
+                        metadata.put("Biome", biomeName);
+                    }
+                    String biomeId = getBiomeId(client);
+                    if (biomeId != null && !biomeId.isEmpty()) {
+                        metadata.put("BiomeId", biomeId);
+                    }
+                }
+
+                long timeOfDay = client.world.getTimeOfDay() % 24000L;
+                metadata.put("TimeOfDayTicks", String.valueOf(timeOfDay));
+                metadata.put("TimeOfDay", formatTimeOfDay(timeOfDay));
+
+                if (config.isIncludeWeatherInfo()) {
+                    addWeatherMetadata(client, metadata);
+                }
+            }
+
+            // Server / world info
+            if (session != null && session.isSingleplayer()) {
+                if (session.getWorldName() != null) {
+                    metadata.put("WorldName", session.getWorldName());
+                }
+                if (config.isIncludeWorldSeed() && session.getSeed() != null) {
+                    if (config.isPrivacyMode()) {
+                        metadata.put("WorldSeed", session.getHashedSeed());
+                        metadata.put("WorldSeedHashed", "true");
+                    } else {
+                        metadata.put("WorldSeed", String.valueOf(session.getSeed()));
+                    }
+                }
+                metadata.put("ServerType", "Singleplayer");
+            } else if (session != null && session.hasServerEntry()) {
+                metadata.put("ServerType", "Multiplayer");
+                metadata.put("ServerName", session.getServerName());
+                String serverAddress = session.getServerAddress();
+                if (!config.isPrivacyMode()
+                    && serverAddress != null
+                    && !serverAddress.toLowerCase().contains("realms")) {
+                    metadata.put("ServerAddress", serverAddress);
+                }
+            }
+            
+            // Timestamp
+            metadata.put("Timestamp", Instant.now().toString());
+                metadata.put("LocalTime", OffsetDateTime.now(ZoneId.systemDefault())
+                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            
+            // Game version info
+            metadata.put("MinecraftVersion", client.getGameVersion());
+            metadata.put("ModVersion", ScreenshotMetadataMod.MOD_VERSION);
+            metadata.put("ModId", ScreenshotMetadataMod.MOD_ID);
+
+            // Player status metadata
+            if (config.isIncludePlayerStatus()) {
+                if (client.world != null) {
+                    try {
+                        metadata.put("Difficulty", client.world.getDifficulty().getName());
+                    } catch (Exception e) {
+                        ScreenshotMetadataMod.LOGGER.debug("Could not get difficulty", e);
+                    }
+                }
+                addGameModeMetadata(client, metadata);
+            }
+
+            // Player Health and Hunger
+            if (config.isIncludePlayerStatus() && client.player != null) {
+                metadata.put("Health", String.format("%.1f", client.player.getHealth()));
+                metadata.put("MaxHealth", String.format("%.1f", client.player.getMaxHealth()));
+                metadata.put("HungerLevel", String.valueOf(client.player.getHungerManager().getFoodLevel()));
+                metadata.put("Saturation", String.format("%.1f", client.player.getHungerManager().getSaturationLevel()));
+            }
+
+            // Performance Metrics
+            if (config.isIncludePerformanceMetrics()) {
+                // Record current time for FPS calculation (approximate)
+                long currentTime = System.currentTimeMillis();
+                metadata.put("CaptureTimeMs", String.valueOf(currentTime));
+                
+                addFrameTimeMetadata(metadata);
+
+                if (client.options != null) {
+                    metadata.put("RenderDistance", String.valueOf(client.options.getViewDistance().getValue()));
+                    if (client.options.getSimulationDistance() != null) {
+                        metadata.put("SimulationDistance", String.valueOf(client.options.getSimulationDistance().getValue()));
+                    }
+                }
+            }
+
+            // Equipped Items
+            if (config.isIncludeEquipment() && client.player != null) {
+                net.minecraft.item.ItemStack mainHand = client.player.getMainHandStack();
+                if (mainHand != null && !mainHand.isEmpty()) {
+                    metadata.put("MainHandItem", DisplayNameTables.item(mainHand.getItem()));
+                    metadata.put("MainHandCount", String.valueOf(mainHand.getCount()));
+                }
+
+                net.minecraft.item.ItemStack offHand = client.player.getOffHandStack();
+                if (offHand != null && !offHand.isEmpty()) {
+                    metadata.put("OffHandItem", DisplayNameTables.item(offHand.getItem()));
+                    metadata.put("OffHandCount", String.valueOf(offHand.getCount()));
+                }
+            }
+
+            // Armor and Equipment
+            if (config.isIncludeEquipment() && client.player != null) {
+                addArmorMetadata(client.player, metadata);
+            }
+
+            // Active Potion Effects
+            if (config.isIncludePotionEffects() && client.player != null) {
+                addPotionEffectsMetadata(client.player, metadata);
+            }
+            
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.error("Error collecting metadata", e);
+        }
+        
+        return metadata;
+    }
+
+    /**
+     * Adds average FPS and frame-time percentiles of the last few seconds to metadata
+     */
+    private static void addFrameTimeMetadata(Map<String, String> metadata) {
+        FrameTimeRing.Stats stats = FrameTimeRing.get().stats();
+        if (stats == null) {
+            return;
+        }
+        metadata.put("AverageFps", String.format("%.1f", stats.getAverageFps()));
+        metadata.put("FrameTimeP50Ms", String.format("%.2f", stats.getP50Millis()));
+        metadata.put("FrameTimeP95Ms", String.format("%.2f", stats.getP95Millis()));
+        metadata.put("FrameTimeP99Ms", String.format("%.2f", stats.getP99Millis()));
+        metadata.put("FrameTimeMaxMs", String.format("%.2f", stats.getMaxMillis()));
+        metadata.put("FrameTimeWindowFrames", String.valueOf(stats.getFrames()));
+    }
+
+    /**
+     * Adds armor and equipment details to metadata
+     */
+    private static void addArmorMetadata(net.minecraft.entity.player.PlayerEntity player, Map<String, String> metadata) {
+        try {
+            net.minecraft.entity.EquipmentSlot[] armorSlots = {
+                net.minecraft.entity.EquipmentSlot.HEAD,
+                net.minecraft.entity.EquipmentSlot.CHEST,
+                net.minecraft.entity.EquipmentSlot.LEGS,
+                net.minecraft.entity.EquipmentSlot.FEET
+            };
+
+            String[] armorNames = {"Head", "Chest", "Legs", "Feet"};
+
+            for (int i = 0; i < armorSlots.length; i++) {
+                net.minecraft.item.ItemStack armor = player.getEquippedStack(armorSlots[i]);
+                if (armor != null && !armor.isEmpty()) {
+                    metadata.put("Armor" + armorNames[i], DisplayNameTables.item(armor.getItem()));
+                }
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not collect armor metadata", e);
+        }
+    }
+
+    /**
+     * Adds active potion effects to metadata
+     */
+    private static void addPotionEffectsMetadata(net.minecraft.entity.player.PlayerEntity player, Map<String, String> metadata) {
+        try {
+            java.util.Collection<net.minecraft.entity.effect.StatusEffectInstance> effects = player.getStatusEffects();
+            
+            if (effects.isEmpty()) {
+                metadata.put("PotionEffects", "None");
+                return;
+            }
+
+            StringBuilder effectsBuilder = new StringBuilder();
+            int effectCount = 0;
+
+            for (net.minecraft.entity.effect.StatusEffectInstance effect : effects) {
+                if (effectCount > 0) {
+                    effectsBuilder.append(", ");
+                }
+
+                String effectName = DisplayNameTables.statusEffect(effect.getEffectType().value());
+                int amplifier = effect.getAmplifier();
+                int duration = effect.getDuration();
+
+                effectsBuilder.append(effectName);
+                if (amplifier > 0) {
+                    effectsBuilder.append(" ").append(amplifier + 1);
+                }
+                effectsBuilder.append(" (").append(duration).append("t)");
+                effectCount++;
+            }
+
+            if (effectCount > 0) {
+                metadata.put("PotionEffects", effectsBuilder.toString());
+                metadata.put("PotionEffectCount", String.valueOf(effectCount));
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not collect potion effects metadata", e);
+        }
+    }
+    
+    /**
+     * Extracts and cleans up the biome name for better readability
+     */
+    private static String getBiomeName(MinecraftClient client) {
+        try {
+            RegistryEntry<Biome> biomeEntry = client.world.getBiome(client.player.getBlockPos());
+            return biomeEntry.getKey()
+                    .map(key -> DisplayNameTables.biome(key.getValue().getPath()))
+                    .orElse("Unknown");
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not extract biome name", e);
+            return "Unknown";
+        }
+    }
+
+    /**
+     * Extracts the biome registry id
+     */
+    private static String getBiomeId(MinecraftClient client) {
+        try {
+            RegistryEntry<Biome> biomeEntry = client.world.getBiome(client.player.getBlockPos());
+            return biomeEntry.getKey()
+                    .map(key -> key.getValue().toString())
+                    .orElse("Unknown");
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not extract biome id", e);
+            return "Unknown";
+        }
+    }
+    
+    /**
+     * Converts in-game time (0-23999) to 24h time
+     */
+    private static String formatTimeOfDay(long timeOfDay) {
+        int hours = (int) ((timeOfDay / 1000 + 6) % 24);
+        int minutes = (int) ((timeOfDay % 1000) * 60 / 1000);
+        return String.format("%02d:%02d", hours, minutes);
+    }
+
+    /**
+     * Adds current game mode to metadata when available.
+     * Uses reflection so this remains compatible across stable/snapshot mappings.
+     */
+    private static void addGameModeMetadata(MinecraftClient client, Map<String, String> metadata) {
+        try {
+            if (client == null || client.interactionManager == null) {
+                return;
+            }
+
+            Object mode = invokeIfPresent(client.interactionManager, "getCurrentGameMode");
+            if (mode == null) {
+                mode = invokeIfPresent(client.interactionManager, "getGameMode");
+            }
+            String gameMode = normalizeGameMode(mode);
+            if (gameMode != null && !gameMode.isBlank()) {
+                metadata.put("GameMode", gameMode);
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not collect game mode metadata", e);
+        }
+    }
+
+    private static String normalizeGameMode(Object mode) {
+        if (mode == null) {
+            return null;
+        }
+
+        Object translatable = invokeIfPresent(mode, "getTranslatableName");
+        if (translatable != null) {
+            Object translated = invokeIfPresent(translatable, "getString");
+            if (translated instanceof String value && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+
+        Object asString = invokeIfPresent(mode, "asString");
+        if (asString instanceof String value && !value.isBlank()) {
+            return formatDisplayName(value);
+        }
+
+        String fallback = mode.toString();
+        if (fallback == null || fallback.isBlank()) {
+            return null;
+        }
+        return formatDisplayName(fallback);
+    }
+
+    private static String formatDisplayName(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String normalized = value.trim().replace('-', '_').replace(' ', '_').toLowerCase();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        String[] words = normalized.split("_+");
+        StringBuilder result = new StringBuilder();
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            result.append(Character.toUpperCase(word.charAt(0)));
+            if (word.length() > 1) {
+                result.append(word.substring(1));
+            }
+        }
+
+        return result.length() == 0 ? null : result.toString();
+    }
+
+    /**
+     * Converts yaw to a readable facing direction
+     */
+    private static String getFacingDirection(float yaw) {
+        int index = Math.floorMod(Math.round(yaw / 45f), 8);
+        return switch (index) {
+            case 0 -> "South";
+            case 1 -> "Southwest";
+            case 2 -> "West";
+            case 3 -> "Northwest";
+            case 4 -> "North";
+            case 5 -> "Northeast";
+            case 6 -> "East";
+            case 7 -> "Southeast";
+            default -> "Unknown";
+        };
+    }
+    
+    /**
+     * Adds weather details to metadata
+     */
+    private static void addWeatherMetadata(MinecraftClient client, Map<String, String> metadata) {
+        try {
+            if (client == null || client.world == null) {
+                return;
+            }
+
+            boolean raining = client.world.isRaining();
+            boolean thundering = client.world.isThundering();
+            String weather = thundering ? "Thunder" : (raining ? "Rain" : "Clear");
+
+            metadata.put("Weather", weather);
+            metadata.put("IsRaining", String.valueOf(raining));
+            metadata.put("IsThundering", String.valueOf(thundering));
+            metadata.put("RainGradient", String.format("%.2f", client.world.getRainGradient(1.0f)));
+            metadata.put("ThunderGradient", String.format("%.2f", client.world.getThunderGradient(1.0f)));
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not collect weather metadata", e);
+        }
+    }
+
+    /**
+     * Collects extra context for JSON sidecars only.
+     */
+    private static JsonSidecarContext collectJsonSidecarContext(MinecraftClient client, ScreenshotMetadataConfig config) {
+        if (!config.isWriteJsonSidecar()
+            || (!config.isIncludeModpackContext() && !config.isIncludeRenderStats() && !config.isIncludeJvmStats())) {
+            return null;
+        }
+
+        RenderStats renderStats = config.isIncludeRenderStats() ? RenderStatsSampler.sample(client) : null;
+        JvmStats jvmStats = config.isIncludeJvmStats() ? JvmStatsSampler.sample() : null;
+        if (!config.isIncludeModpackContext()) {
+            return JsonSidecarContext.withoutModpack(renderStats, jvmStats);
+        }
+
+        List<String> resourcePacks = collectEnabledResourcePacks(client);
+        String shaderPack = detectShaderPack();
+
+        List<String> modEntries = new ArrayList<>();
+        int modCount = -1;
+        boolean modListTruncated = false;
+
+        try {
+            List<ModContainer> mods = new ArrayList<>(FabricLoader.getInstance().getAllMods());
+            mods.sort(Comparator.comparing(mod -> mod.getMetadata().getId()));
+            modCount = mods.size();
+
+            for (ModContainer mod : mods) {
+                if (modEntries.size() >= MAX_MOD_LIST_ENTRIES) {
+                    modListTruncated = true;
+                    break;
+                }
+                String id = mod.getMetadata().getId();
+                String version = mod.getMetadata().getVersion().getFriendlyString();
+                modEntries.add(id + "@" + version);
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not collect mod list", e);
+        }
+
+        return new JsonSidecarContext(
+            resourcePacks,
+            shaderPack,
+            modEntries,
+            modCount,
+            modListTruncated,
+            renderStats,
+            jvmStats
+        );
+    }
+
+    private static List<String> collectEnabledResourcePacks(MinecraftClient client) {
+        List<String> packs = new ArrayList<>();
+        try {
+            if (client == null || client.getResourcePackManager() == null) {
+                return packs;
+            }
+
+            Object packManager = client.getResourcePackManager();
+            Object enabledIds = invokeIfPresent(packManager, "getEnabledIds");
+            if (enabledIds instanceof Iterable<?> iterable) {
+                for (Object id : iterable) {
+                    if (id != null) {
+                        packs.add(id.toString());
+                    }
+                }
+            }
+
+            if (packs.isEmpty()) {
+                Object profiles = invokeIfPresent(packManager, "getEnabledProfiles");
+                if (profiles instanceof Iterable<?> iterableProfiles) {
+                    for (Object profile : iterableProfiles) {
+                        if (profile == null) {
+                            continue;
+                        }
+                        Object id = invokeIfPresent(profile, "getId");
+                        if (id != null) {
+                            packs.add(id.toString());
+                            continue;
+                        }
+                        Object name = invokeIfPresent(profile, "getDisplayName");
+                        if (name != null) {
+                            packs.add(name.toString());
+                            continue;
+                        }
+                        packs.add(profile.toString());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not collect resource packs", e);
+        }
+        return packs;
+    }
+
+    private static String detectShaderPack() {
+        try {
+            if (FabricLoader.getInstance().isModLoaded("iris")) {
+                String irisPack = tryGetIrisShaderPack();
+                return irisPack != null ? irisPack : "Unknown";
+            }
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not detect shader pack", e);
+        }
+        return "None";
+    }
+
+    private static String tryGetIrisShaderPack() {
+        try {
+            Class<?> irisApiClass = Class.forName("net.irisshaders.iris.api.v0.IrisApi");
+            Method getInstance = irisApiClass.getMethod("getInstance");
+            Object irisApi = getInstance.invoke(null);
+            if (irisApi == null) {
+                return null;
+            }
+
+            Object packName = invokeIfPresent(irisApi, "getShaderPackName");
+            if (packName instanceof String && !((String) packName).isBlank()) {
+                return ((String) packName).trim();
+            }
+
+            Object config = invokeIfPresent(irisApi, "getConfig");
+            if (config != null) {
+                Object nameFromConfig = invokeIfPresent(config, "getShaderPackName");
+                if (nameFromConfig instanceof String && !((String) nameFromConfig).isBlank()) {
+                    return ((String) nameFromConfig).trim();
+                }
+                Object packFromConfig = invokeIfPresent(config, "getShaderPack");
+                String derived = extractNameFromPack(packFromConfig);
+                if (derived != null) {
+                    return derived;
+                }
+            }
+
+            Object pack = invokeIfPresent(irisApi, "getShaderPack");
+            return extractNameFromPack(pack);
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Iris shader detection failed", e);
+            return null;
+        }
+    }
+
+    private static Object invokeIfPresent(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getMethod(methodName);
+            return method.invoke(target);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String extractNameFromPack(Object pack) {
+        if (pack == null) {
+            return null;
+        }
+        Object name = invokeIfPresent(pack, "getName");
+        if (name instanceof String && !((String) name).isBlank()) {
+            return ((String) name).trim();
+        }
+        String fallback = pack.toString();
+        return fallback != null && !fallback.isBlank() ? fallback : null;
+    }
+
+    private static int roundToNearest(int value, int step) {
+        if (step <= 0) {
+            return value;
+        }
+        return Math.round(value / (float) step) * step;
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.fentbuscoding.screenshotmetadata.capture;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataMod;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.client.world.ClientWorld;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * World and server details that only change when the player joins, leaves or changes dimension.
+ * Computed once per {@link ClientWorld} and reused by every capture in it; the client replaces its
+ * world on each of those events, so a different world instance is what invalidates the cache.
+ */
+final class WorldSessionContext {
+    // Render thread only. Weak so a disconnected world is not kept alive until the next capture.
+    private static WeakReference<ClientWorld> cachedWorld = new WeakReference<>(null);
+    private static WorldSessionContext cached;
+
+    private final String dimensionId;
+    private final String dimensionName;
+    private final boolean singleplayer;
+    private final String worldName;
+    private final Long seed;
+    private final String hashedSeed;
+    private final String serverName;
+    private final String serverAddress;
+
+    private WorldSessionContext(MinecraftClient client, ClientWorld world) {
+        this.dimensionId = world.getRegistryKey().getValue().toString();
+        this.dimensionName = DisplayNameTables.dimension(dimensionId);
+        this.singleplayer = client.isInSingleplayer();
+
+        String levelName = null;
+        Long worldSeed = null;
+        if (singleplayer && client.getServer() != null) {
+            if (client.getServer().getSaveProperties() != null) {
+                levelName = client.getServer().getSaveProperties().getLevelName();
+            }
+            if (client.getServer().getOverworld() != null) {
+                worldSeed = client.getServer().getOverworld().getSeed();
+            }
+        }
+        this.worldName = levelName;
+        this.seed = worldSeed;
+        this.hashedSeed = worldSeed != null ? hashSeed(worldSeed) : null;
+
+        ServerInfo server = singleplayer ? null : client.getCurrentServerEntry();
+        this.serverName = server != null ? server.name : null;
+        this.serverAddress = server != null ? server.address : null;
+    }
+
+    /**
+     * Returns the context of the client's current world, computing it on the first capture in that world.
+     */
+    static WorldSessionContext current(MinecraftClient client) {
+        ClientWorld world = client.world;
+        if (world == null) {
+            cachedWorld = new WeakReference<>(null);
+            cached = null;
+            return null;
+        }
+        if (cached == null || cachedWorld.get() != world) {
+            cached = new WorldSessionContext(client, world);
+            cachedWorld = new WeakReference<>(world);
+        }
+        return cached;
+    }
+
+    String getDimensionId() {
+        return dimensionId;
+    }
+
+    String getDimensionName() {
+        return dimensionName;
+    }
+
+    boolean isSingleplayer() {
+        return singleplayer;
+    }
+
+    String getWorldName() {
+        return worldName;
+    }
+
+    /**
+     * The world seed, or null outside singleplayer.
+     */
+    Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * SHA-256 of the seed's decimal form, for privacy mode.
+     */
+    String getHashedSeed() {
+        return hashedSeed;
+    }
+
+    /**
+     * True when connected to a server from the server list.
+     */
+    boolean hasServerEntry() {
+        return serverName != null || serverAddress != null;
+    }
+
+    String getServerName() {
+        return serverName;
+    }
+
+    String getServerAddress() {
+        return serverAddress;
+    }
+
+    private static String hashSeed(long seed) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Long.toString(seed).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Could not hash world seed", e);
+            return "unknown";
+        }
+    }
+}
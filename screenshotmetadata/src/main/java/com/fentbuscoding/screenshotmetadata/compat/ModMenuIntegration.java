@@ -8,6 +8,7 @@ import com.terraformersmc.modmenu.api.ConfigScreenFactory;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.widget.ButtonWidget;
+import net.minecraft.client.gui.widget.ClickableWidget;
 import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
@@ -47,6 +48,10 @@ public class ModMenuIntegration implements ModMenuApi {
 
         private final List<Section> sections = new ArrayList<>();
         private final List<TooltipEntry> tooltipEntries = new ArrayList<>();
+        // Widgets that move with the scroll offset, laid out once per init() at their unscrolled Y
+        private final List<ScrolledWidget> scrolledWidgets = new ArrayList<>();
+        private ButtonWidget saveButton;
+        private int saveButtonBaseY;
         private final Map<String, Boolean> collapsedSections = new HashMap<>();
         private int appliedScrollOffset = 0;
         private int maxScroll = 0;
@@ -56,6 +61,9 @@ public class ModMenuIntegration implements ModMenuApi {
         private int templateFieldY = -1;
         private int privacyPreviewY = -1;
         private String templatePreview = "";
+        private String templatePreviewSource;
+        // Edits go to a private copy; the shared config is only replaced on save
+        private final ScreenshotMetadataConfig draft = ScreenshotMetadataConfig.edit();
 
         protected ConfigScreen(Screen parent) {
             super(Text.translatable("screen.screenshotmetadata.config.title").formatted(Formatting.BOLD));
@@ -67,13 +75,14 @@ public class ModMenuIntegration implements ModMenuApi {
             this.clearChildren();
             this.sections.clear();
             this.tooltipEntries.clear();
+            this.scrolledWidgets.clear();
             this.templateField = null;
             this.templateFieldY = -1;
             this.privacyPreviewY = -1;
-            ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+            ScreenshotMetadataConfig config = this.draft;
             updateLayoutMetrics();
             int centerX = this.width / 2;
-            int y = contentTop - appliedScrollOffset;
+            int y = contentTop;
 
             // ===== PROFILE SECTION =====
             y = drawSection(centerX, y, "profiles",
@@ -94,26 +103,42 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("output_formats")) {
                 Text pngLabel = Text.translatable("screen.screenshotmetadata.config.toggle.png");
                 y += this.addToggleButton(centerX, y, pngLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.png.desc"), config.writePngMetadata,
+                Text.translatable("screen.screenshotmetadata.config.toggle.png.desc"), config.isWritePngMetadata(),
                 button -> {
-                    config.writePngMetadata = !config.writePngMetadata;
-                    updateButtonText(button, pngLabel, config.writePngMetadata);
+                    config.setWritePngMetadata(!config.isWritePngMetadata());
+                    updateButtonText(button, pngLabel, config.isWritePngMetadata());
                 });
             
                 Text xmpLabel = Text.translatable("screen.screenshotmetadata.config.toggle.xmp");
                 y += this.addToggleButton(centerX, y, xmpLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.xmp.desc"), config.writeXmpSidecar,
+                Text.translatable("screen.screenshotmetadata.config.toggle.xmp.desc"), config.isWriteXmpSidecar(),
                 button -> {
-                    config.writeXmpSidecar = !config.writeXmpSidecar;
-                    updateButtonText(button, xmpLabel, config.writeXmpSidecar);
+                    config.setWriteXmpSidecar(!config.isWriteXmpSidecar());
+                    updateButtonText(button, xmpLabel, config.isWriteXmpSidecar());
+                });
+
+                Text embeddedXmpLabel = Text.translatable("screen.screenshotmetadata.config.toggle.xmp_embedded");
+                y += this.addToggleButton(centerX, y, embeddedXmpLabel,
+                Text.translatable("screen.screenshotmetadata.config.toggle.xmp_embedded.desc"), config.isEmbedXmpInPng(),
+                button -> {
+                    config.setEmbedXmpInPng(!config.isEmbedXmpInPng());
+                    updateButtonText(button, embeddedXmpLabel, config.isEmbedXmpInPng());
                 });
 
                 Text jsonLabel = Text.translatable("screen.screenshotmetadata.config.toggle.json");
                 y += this.addToggleButton(centerX, y, jsonLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.json.desc"), config.writeJsonSidecar,
+                Text.translatable("screen.screenshotmetadata.config.toggle.json.desc"), config.isWriteJsonSidecar(),
                 button -> {
-                    config.writeJsonSidecar = !config.writeJsonSidecar;
-                    updateButtonText(button, jsonLabel, config.writeJsonSidecar);
+                    config.setWriteJsonSidecar(!config.isWriteJsonSidecar());
+                    updateButtonText(button, jsonLabel, config.isWriteJsonSidecar());
+                });
+
+                Text watchLabel = Text.translatable("screen.screenshotmetadata.config.toggle.watch_folder");
+                y += this.addToggleButton(centerX, y, watchLabel,
+                Text.translatable("screen.screenshotmetadata.config.toggle.watch_folder.desc"), config.isWatchScreenshotsFolder(),
+                button -> {
+                    config.setWatchScreenshotsFolder(!config.isWatchScreenshotsFolder());
+                    updateButtonText(button, watchLabel, config.isWatchScreenshotsFolder());
                 });
             } else {
                 y += 4;
@@ -128,38 +153,38 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("world_data")) {
                 Text seedLabel = Text.translatable("screen.screenshotmetadata.config.toggle.world_seed");
                 y += this.addToggleButton(centerX, y, seedLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.world_seed.desc"), config.includeWorldSeed,
+                Text.translatable("screen.screenshotmetadata.config.toggle.world_seed.desc"), config.isIncludeWorldSeed(),
                 button -> {
-                    config.includeWorldSeed = !config.includeWorldSeed;
+                    config.setIncludeWorldSeed(!config.isIncludeWorldSeed());
                     markProfileCustom(config);
-                    updateButtonText(button, seedLabel, config.includeWorldSeed);
+                    updateButtonText(button, seedLabel, config.isIncludeWorldSeed());
                 });
 
                 Text biomeLabel = Text.translatable("screen.screenshotmetadata.config.toggle.biome");
                 y += this.addToggleButton(centerX, y, biomeLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.biome.desc"), config.includeBiomeInfo,
+                Text.translatable("screen.screenshotmetadata.config.toggle.biome.desc"), config.isIncludeBiomeInfo(),
                 button -> {
-                    config.includeBiomeInfo = !config.includeBiomeInfo;
+                    config.setIncludeBiomeInfo(!config.isIncludeBiomeInfo());
                     markProfileCustom(config);
-                    updateButtonText(button, biomeLabel, config.includeBiomeInfo);
+                    updateButtonText(button, biomeLabel, config.isIncludeBiomeInfo());
                 });
 
                 Text coordsLabel = Text.translatable("screen.screenshotmetadata.config.toggle.coordinates");
                 y += this.addToggleButton(centerX, y, coordsLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.coordinates.desc"), config.includeCoordinates,
+                Text.translatable("screen.screenshotmetadata.config.toggle.coordinates.desc"), config.isIncludeCoordinates(),
                 button -> {
-                    config.includeCoordinates = !config.includeCoordinates;
+                    config.setIncludeCoordinates(!config.isIncludeCoordinates());
                     markProfileCustom(config);
-                    updateButtonText(button, coordsLabel, config.includeCoordinates);
+                    updateButtonText(button, coordsLabel, config.isIncludeCoordinates());
                 });
 
                 Text weatherLabel = Text.translatable("screen.screenshotmetadata.config.toggle.weather");
                 y += this.addToggleButton(centerX, y, weatherLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.weather.desc"), config.includeWeatherInfo,
+                Text.translatable("screen.screenshotmetadata.config.toggle.weather.desc"), config.isIncludeWeatherInfo(),
                 button -> {
-                    config.includeWeatherInfo = !config.includeWeatherInfo;
+                    config.setIncludeWeatherInfo(!config.isIncludeWeatherInfo());
                     markProfileCustom(config);
-                    updateButtonText(button, weatherLabel, config.includeWeatherInfo);
+                    updateButtonText(button, weatherLabel, config.isIncludeWeatherInfo());
                 });
             } else {
                 y += 4;
@@ -174,19 +199,19 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("privacy_naming")) {
                 Text privacyLabel = Text.translatable("screen.screenshotmetadata.config.toggle.privacy");
                 y += this.addToggleButton(centerX, y, privacyLabel,
-                    Text.translatable("screen.screenshotmetadata.config.toggle.privacy.desc"), config.privacyMode,
+                    Text.translatable("screen.screenshotmetadata.config.toggle.privacy.desc"), config.isPrivacyMode(),
                     button -> {
-                        config.privacyMode = !config.privacyMode;
+                        config.setPrivacyMode(!config.isPrivacyMode());
                         markProfileCustom(config);
-                        updateButtonText(button, privacyLabel, config.privacyMode);
+                        updateButtonText(button, privacyLabel, config.isPrivacyMode());
                     });
 
                 Text renameLabel = Text.translatable("screen.screenshotmetadata.config.toggle.rename");
                 y += this.addToggleButton(centerX, y, renameLabel,
-                    Text.translatable("screen.screenshotmetadata.config.toggle.rename.desc"), config.renameScreenshots,
+                    Text.translatable("screen.screenshotmetadata.config.toggle.rename.desc"), config.isRenameScreenshots(),
                     button -> {
-                        config.renameScreenshots = !config.renameScreenshots;
-                        updateButtonText(button, renameLabel, config.renameScreenshots);
+                        config.setRenameScreenshots(!config.isRenameScreenshots());
+                        updateButtonText(button, renameLabel, config.isRenameScreenshots());
                     });
 
                 y += this.addTemplateEditor(centerX, y, config);
@@ -204,20 +229,20 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("player_status")) {
                 Text healthLabel = Text.translatable("screen.screenshotmetadata.config.toggle.player_status");
                 y += this.addToggleButton(centerX, y, healthLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.player_status.desc"), config.includePlayerStatus,
+                Text.translatable("screen.screenshotmetadata.config.toggle.player_status.desc"), config.isIncludePlayerStatus(),
                 button -> {
-                    config.includePlayerStatus = !config.includePlayerStatus;
+                    config.setIncludePlayerStatus(!config.isIncludePlayerStatus());
                     markProfileCustom(config);
-                    updateButtonText(button, healthLabel, config.includePlayerStatus);
+                    updateButtonText(button, healthLabel, config.isIncludePlayerStatus());
                 });
 
                 Text potionLabel = Text.translatable("screen.screenshotmetadata.config.toggle.potion");
                 y += this.addToggleButton(centerX, y, potionLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.potion.desc"), config.includePotionEffects,
+                Text.translatable("screen.screenshotmetadata.config.toggle.potion.desc"), config.isIncludePotionEffects(),
                 button -> {
-                    config.includePotionEffects = !config.includePotionEffects;
+                    config.setIncludePotionEffects(!config.isIncludePotionEffects());
                     markProfileCustom(config);
-                    updateButtonText(button, potionLabel, config.includePotionEffects);
+                    updateButtonText(button, potionLabel, config.isIncludePotionEffects());
                 });
             } else {
                 y += 4;
@@ -232,11 +257,11 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("equipment")) {
                 Text equipmentLabel = Text.translatable("screen.screenshotmetadata.config.toggle.equipment");
                 y += this.addToggleButton(centerX, y, equipmentLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.equipment.desc"), config.includeEquipment,
+                Text.translatable("screen.screenshotmetadata.config.toggle.equipment.desc"), config.isIncludeEquipment(),
                 button -> {
-                    config.includeEquipment = !config.includeEquipment;
+                    config.setIncludeEquipment(!config.isIncludeEquipment());
                     markProfileCustom(config);
-                    updateButtonText(button, equipmentLabel, config.includeEquipment);
+                    updateButtonText(button, equipmentLabel, config.isIncludeEquipment());
                 });
             } else {
                 y += 4;
@@ -251,12 +276,28 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("performance")) {
                 Text perfLabel = Text.translatable("screen.screenshotmetadata.config.toggle.performance");
                 y += this.addToggleButton(centerX, y, perfLabel,
-                Text.translatable("screen.screenshotmetadata.config.toggle.performance.desc"), config.includePerformanceMetrics,
+                Text.translatable("screen.screenshotmetadata.config.toggle.performance.desc"), config.isIncludePerformanceMetrics(),
                 button -> {
-                    config.includePerformanceMetrics = !config.includePerformanceMetrics;
+                    config.setIncludePerformanceMetrics(!config.isIncludePerformanceMetrics());
                     markProfileCustom(config);
-                    updateButtonText(button, perfLabel, config.includePerformanceMetrics);
+                    updateButtonText(button, perfLabel, config.isIncludePerformanceMetrics());
                 });
+
+                Text renderStatsLabel = Text.translatable("screen.screenshotmetadata.config.toggle.render_stats");
+                y += this.addToggleButton(centerX, y, renderStatsLabel,
+                    Text.translatable("screen.screenshotmetadata.config.toggle.render_stats.desc"), config.isIncludeRenderStats(),
+                    button -> {
+                        config.setIncludeRenderStats(!config.isIncludeRenderStats());
+                        updateButtonText(button, renderStatsLabel, config.isIncludeRenderStats());
+                    });
+
+                Text jvmStatsLabel = Text.translatable("screen.screenshotmetadata.config.toggle.jvm_stats");
+                y += this.addToggleButton(centerX, y, jvmStatsLabel,
+                    Text.translatable("screen.screenshotmetadata.config.toggle.jvm_stats.desc"), config.isIncludeJvmStats(),
+                    button -> {
+                        config.setIncludeJvmStats(!config.isIncludeJvmStats());
+                        updateButtonText(button, jvmStatsLabel, config.isIncludeJvmStats());
+                    });
             } else {
                 y += 4;
             }
@@ -270,11 +311,29 @@ public class ModMenuIntegration implements ModMenuApi {
             if (!isCollapsed("sidecar_extras")) {
                 Text modpackLabel = Text.translatable("screen.screenshotmetadata.config.toggle.modpack");
                 y += this.addToggleButton(centerX, y, modpackLabel,
-                    Text.translatable("screen.screenshotmetadata.config.toggle.modpack.desc"), config.includeModpackContext,
+                    Text.translatable("screen.screenshotmetadata.config.toggle.modpack.desc"), config.isIncludeModpackContext(),
                     button -> {
-                        config.includeModpackContext = !config.includeModpackContext;
+                        config.setIncludeModpackContext(!config.isIncludeModpackContext());
                         markProfileCustom(config);
-                        updateButtonText(button, modpackLabel, config.includeModpackContext);
+                        updateButtonText(button, modpackLabel, config.isIncludeModpackContext());
+                    });
+            } else {
+                y += 4;
+            }
+
+            // ===== TIMELAPSE SECTION =====
+            y += SECTION_PADDING;
+            y = drawSection(centerX, y, "timelapse",
+                Text.translatable("screen.screenshotmetadata.config.section.timelapse"),
+                0xCC99FF);
+
+            if (!isCollapsed("timelapse")) {
+                Text timelapseLabel = Text.translatable("screen.screenshotmetadata.config.toggle.timelapse");
+                y += this.addToggleButton(centerX, y, timelapseLabel,
+                    Text.translatable("screen.screenshotmetadata.config.toggle.timelapse.desc"), config.isTimelapseEnabled(),
+                    button -> {
+                        config.setTimelapseEnabled(!config.isTimelapseEnabled());
+                        updateButtonText(button, timelapseLabel, config.isTimelapseEnabled());
                     });
             } else {
                 y += 4;
@@ -282,7 +341,8 @@ public class ModMenuIntegration implements ModMenuApi {
 
             // ===== SAVE BUTTON =====
             y += SECTION_PADDING + 20;
-            this.addDrawableChild(ButtonWidget.builder(
+            saveButtonBaseY = y;
+            saveButton = this.addDrawableChild(ButtonWidget.builder(
                 Text.translatable("screen.screenshotmetadata.config.save").formatted(Formatting.GREEN, Formatting.BOLD), 
                 button -> this.close())
                 .dimensions(centerX - BUTTON_WIDTH / 2, Math.min(y, this.height - 40), BUTTON_WIDTH, BUTTON_HEIGHT)
@@ -295,10 +355,32 @@ public class ModMenuIntegration implements ModMenuApi {
                 .dimensions(centerX - BUTTON_WIDTH / 2, this.height - 30, BUTTON_WIDTH, BUTTON_HEIGHT)
                 .build());
 
-            int contentHeight = Math.max(0, (y + appliedScrollOffset) - contentTop);
+            int contentHeight = Math.max(0, y - contentTop);
             int viewHeight = Math.max(0, this.height - contentTop - CONTENT_BOTTOM_PADDING);
             maxScroll = Math.max(0, contentHeight - viewHeight);
             appliedScrollOffset = clampInt(appliedScrollOffset, 0, maxScroll);
+            applyScrollOffset();
+        }
+
+        private <T extends ClickableWidget> T addScrolledChild(T widget) {
+            scrolledWidgets.add(new ScrolledWidget(widget, widget.getY()));
+            return this.addDrawableChild(widget);
+        }
+
+        /**
+         * Moves the retained widgets to the current scroll offset. Widgets outside the viewport are
+         * hidden, which also skips their rendering and input handling.
+         */
+        private void applyScrollOffset() {
+            int viewBottom = this.height - 6;
+            for (ScrolledWidget entry : scrolledWidgets) {
+                int y = entry.baseY - appliedScrollOffset;
+                entry.widget.setY(y);
+                entry.widget.visible = y + entry.widget.getHeight() > contentTop && y < viewBottom;
+            }
+            if (saveButton != null) {
+                saveButton.setY(Math.min(saveButtonBaseY - appliedScrollOffset, this.height - 40));
+            }
         }
 
         private int drawSection(int centerX, int y, String key, Text title, int color) {
@@ -312,7 +394,7 @@ public class ModMenuIntegration implements ModMenuApi {
             ButtonWidget button = ButtonWidget.builder(buttonText, btn -> onPress.accept(btn))
                 .dimensions(centerX - BUTTON_WIDTH / 2, y, BUTTON_WIDTH, BUTTON_HEIGHT)
                 .build();
-            this.addDrawableChild(button);
+            this.addScrolledChild(button);
             if (description != null) {
                 tooltipEntries.add(new TooltipEntry(button, List.of(description)));
             }
@@ -332,13 +414,13 @@ public class ModMenuIntegration implements ModMenuApi {
             );
             templateField.setPlaceholder(Text.translatable("screen.screenshotmetadata.config.template.placeholder"));
             templateField.setMaxLength(120);
-            templateField.setText(config.screenshotNameTemplate == null ? "" : config.screenshotNameTemplate);
+            templateField.setText(config.getScreenshotNameTemplate() == null ? "" : config.getScreenshotNameTemplate());
             templateField.setChangedListener(newValue -> {
-                config.screenshotNameTemplate = newValue == null ? "" : newValue.trim();
-                templatePreview = createTemplatePreview(config.screenshotNameTemplate);
+                config.setScreenshotNameTemplate(newValue == null ? "" : newValue.trim());
+                refreshTemplatePreview(config.getScreenshotNameTemplate());
             });
-            this.addDrawableChild(templateField);
-            templatePreview = createTemplatePreview(config.screenshotNameTemplate);
+            this.addScrolledChild(templateField);
+            refreshTemplatePreview(config.getScreenshotNameTemplate());
 
             int buttonY = y + TEMPLATE_FIELD_HEIGHT + 2;
             int smallButtonWidth = (BUTTON_WIDTH - 6) / 2;
@@ -346,24 +428,24 @@ public class ModMenuIntegration implements ModMenuApi {
             ButtonWidget defaultsButton = ButtonWidget.builder(
                     Text.translatable("screen.screenshotmetadata.config.template.default").formatted(Formatting.GRAY),
                     btn -> {
-                        config.screenshotNameTemplate = "{date}_{dimension}_X{x}_Z{z}";
-                        templateField.setText(config.screenshotNameTemplate);
-                        templatePreview = createTemplatePreview(config.screenshotNameTemplate);
+                        config.setScreenshotNameTemplate("{date}_{dimension}_X{x}_Z{z}");
+                        templateField.setText(config.getScreenshotNameTemplate());
+                        refreshTemplatePreview(config.getScreenshotNameTemplate());
                     })
                 .dimensions(fieldX, buttonY, smallButtonWidth, 16)
                 .build();
-            this.addDrawableChild(defaultsButton);
+            this.addScrolledChild(defaultsButton);
 
             ButtonWidget biomeTimeButton = ButtonWidget.builder(
                     Text.translatable("screen.screenshotmetadata.config.template.biome_time").formatted(Formatting.AQUA),
                     btn -> {
-                        config.screenshotNameTemplate = "{biome}_{time}";
-                        templateField.setText(config.screenshotNameTemplate);
-                        templatePreview = createTemplatePreview(config.screenshotNameTemplate);
+                        config.setScreenshotNameTemplate("{biome}_{time}");
+                        templateField.setText(config.getScreenshotNameTemplate());
+                        refreshTemplatePreview(config.getScreenshotNameTemplate());
                     })
                 .dimensions(fieldX + smallButtonWidth + 6, buttonY, smallButtonWidth, 16)
                 .build();
-            this.addDrawableChild(biomeTimeButton);
+            this.addScrolledChild(biomeTimeButton);
 
             tooltipEntries.add(new TooltipEntry(defaultsButton, List.of(
                 Text.translatable("screen.screenshotmetadata.config.template.default.tip")
@@ -393,7 +475,7 @@ public class ModMenuIntegration implements ModMenuApi {
                 active == MetadataProfile.FULL,
                 config
             );
-            this.addDrawableChild(fullButton);
+            this.addScrolledChild(fullButton);
             tooltipEntries.add(new TooltipEntry(fullButton, List.of(
                 Text.translatable("screen.screenshotmetadata.config.profile.full.desc")
             )));
@@ -406,7 +488,7 @@ public class ModMenuIntegration implements ModMenuApi {
                 active == MetadataProfile.LIGHTWEIGHT,
                 config
             );
-            this.addDrawableChild(lightButton);
+            this.addScrolledChild(lightButton);
             tooltipEntries.add(new TooltipEntry(lightButton, List.of(
                 Text.translatable("screen.screenshotmetadata.config.profile.lightweight.desc")
             )));
@@ -419,7 +501,7 @@ public class ModMenuIntegration implements ModMenuApi {
                 active == MetadataProfile.PRIVACY,
                 config
             );
-            this.addDrawableChild(privacyButton);
+            this.addScrolledChild(privacyButton);
             tooltipEntries.add(new TooltipEntry(privacyButton, List.of(
                 Text.translatable("screen.screenshotmetadata.config.profile.privacy.desc")
             )));
@@ -436,7 +518,7 @@ public class ModMenuIntegration implements ModMenuApi {
             Text label = profileLabel(profile, selected);
             return ButtonWidget.builder(label, btn -> {
                     config.applyProfile(profile);
-                    ScreenshotMetadataConfig.save();
+                    ScreenshotMetadataConfig.update(config);
                     this.init();
                 })
                 .dimensions(x, y, width, PROFILE_BUTTON_HEIGHT)
@@ -477,20 +559,22 @@ public class ModMenuIntegration implements ModMenuApi {
         }
 
         private void resetDefaults() {
-            ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
-            config.writePngMetadata = true;
-            config.writeXmpSidecar = true;
-            config.writeJsonSidecar = true;
+            ScreenshotMetadataConfig config = this.draft;
+            config.setWritePngMetadata(true);
+            config.setWriteXmpSidecar(true);
+            config.setEmbedXmpInPng(false);
+            config.setWriteJsonSidecar(true);
             config.applyProfile(MetadataProfile.FULL);
-            config.renameScreenshots = false;
-            config.screenshotNameTemplate = "{date}_{dimension}_X{x}_Z{z}";
-            ScreenshotMetadataConfig.save();
+            config.setRenameScreenshots(false);
+            config.setScreenshotNameTemplate("{date}_{dimension}_X{x}_Z{z}");
+            ScreenshotMetadataConfig.update(config);
             this.init();
         }
 
         @Override
         public void close() {
-            ScreenshotMetadataConfig.save();
+            ScreenshotMetadataConfig.update(draft);
+            ScreenshotMetadataConfig.flush();
             this.client.setScreen(parent);
         }
 
@@ -554,7 +638,7 @@ public class ModMenuIntegration implements ModMenuApi {
             int nextOffset = clampInt(appliedScrollOffset - (int) Math.round(verticalAmount * SCROLL_STEP), 0, maxScroll);
             if (nextOffset != appliedScrollOffset) {
                 appliedScrollOffset = nextOffset;
-                this.init();
+                applyScrollOffset();
             }
             return true;
         }
@@ -562,7 +646,7 @@ public class ModMenuIntegration implements ModMenuApi {
         private void renderSections(DrawContext context) {
             int centerX = this.width / 2;
             for (Section section : sections) {
-                int y = section.y;
+                int y = section.y - appliedScrollOffset;
                 if (y < contentTop - 24 || y > this.height) {
                     continue;
                 }
@@ -598,18 +682,18 @@ public class ModMenuIntegration implements ModMenuApi {
             if (privacyPreviewY < 0) {
                 return;
             }
-            int y = privacyPreviewY;
+            int y = privacyPreviewY - appliedScrollOffset;
             if (y < contentTop - 16 || y > this.height - 40) {
                 return;
             }
 
-            ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
-            String stateValue = config.privacyMode
+            ScreenshotMetadataConfig config = this.draft;
+            String stateValue = config.isPrivacyMode()
                 ? Text.translatable("screen.screenshotmetadata.toggle.on").getString()
                 : Text.translatable("screen.screenshotmetadata.toggle.off").getString();
 
             int x = this.width / 2 - BUTTON_WIDTH / 2;
-            int titleColor = config.privacyMode ? 0x78D0A0 : 0x9CA3AF;
+            int titleColor = config.isPrivacyMode() ? 0x78D0A0 : 0x9CA3AF;
             context.drawTextWithShadow(
                 this.textRenderer,
                 Text.translatable("screen.screenshotmetadata.config.privacy.preview.title", stateValue)
@@ -648,7 +732,7 @@ public class ModMenuIntegration implements ModMenuApi {
             if (templateField == null || templateFieldY < 0) {
                 return;
             }
-            int y = templateFieldY + TEMPLATE_FIELD_HEIGHT + 20;
+            int y = templateFieldY - appliedScrollOffset + TEMPLATE_FIELD_HEIGHT + 20;
             if (y < contentTop - 16 || y > this.height - 20) {
                 return;
             }
@@ -690,6 +774,17 @@ public class ModMenuIntegration implements ModMenuApi {
             return value + ".png";
         }
 
+        /**
+         * Rebuilds the preview only when the template text differs from the one it was built for.
+         */
+        private void refreshTemplatePreview(String template) {
+            if (templatePreviewSource != null && templatePreviewSource.equals(template)) {
+                return;
+            }
+            templatePreviewSource = template;
+            templatePreview = createTemplatePreview(template);
+        }
+
         private void addCollapseButton(int centerX, int y, String key) {
             boolean collapsed = isCollapsed(key);
             Text label = Text.literal(collapsed ? "+" : "-").formatted(Formatting.GRAY);
@@ -699,7 +794,7 @@ public class ModMenuIntegration implements ModMenuApi {
                 })
                 .dimensions(centerX + SECTION_LINE_WIDTH + 8, y, SECTION_TOGGLE_SIZE, SECTION_TOGGLE_SIZE)
                 .build();
-            this.addDrawableChild(button);
+            this.addScrolledChild(button);
             tooltipEntries.add(new TooltipEntry(button, List.of(
                 Text.translatable(collapsed
                     ? "screen.screenshotmetadata.config.section.expand"
@@ -725,6 +820,16 @@ public class ModMenuIntegration implements ModMenuApi {
         }
     }
 
+    private static final class ScrolledWidget {
+        private final ClickableWidget widget;
+        private final int baseY;
+
+        private ScrolledWidget(ClickableWidget widget, int baseY) {
+            this.widget = widget;
+            this.baseY = baseY;
+        }
+    }
+
     private static final class TooltipEntry {
         private final ButtonWidget button;
         private final List<Text> lines;
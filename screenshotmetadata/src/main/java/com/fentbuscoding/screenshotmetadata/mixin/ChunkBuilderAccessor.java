@@ -0,0 +1,16 @@
+package com.fentbuscoding.screenshotmetadata.mixin;
+
+import net.minecraft.client.render.chunk.ChunkBuilder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/**
+ * Exposes the number of chunk sections queued for building. Registered in the optional accessor
+ * config alongside {@link WorldRendererAccessor}.
+ */
+@Mixin(ChunkBuilder.class)
+public interface ChunkBuilderAccessor {
+
+    @Invoker("getToBatchCount")
+    int screenshotmetadata$getToBatchCount();
+}
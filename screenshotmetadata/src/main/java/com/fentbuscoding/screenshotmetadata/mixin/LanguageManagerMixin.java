@@ -0,0 +1,22 @@
+package com.fentbuscoding.screenshotmetadata.mixin;
+
+import com.fentbuscoding.screenshotmetadata.capture.DisplayNameTables;
+import net.minecraft.client.resource.language.LanguageManager;
+import net.minecraft.resource.ResourceManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Clears the cached display names whenever translations are reloaded, which covers both a
+ * language change and a resource pack reload.
+ */
+@Mixin(LanguageManager.class)
+public abstract class LanguageManagerMixin {
+
+    @Inject(method = "reload(Lnet/minecraft/resource/ResourceManager;)V", at = @At("TAIL"), require = 0)
+    private void screenshotmetadata$invalidateDisplayNames(ResourceManager manager, CallbackInfo ci) {
+        DisplayNameTables.invalidate();
+    }
+}
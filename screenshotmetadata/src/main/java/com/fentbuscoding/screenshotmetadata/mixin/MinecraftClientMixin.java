@@ -0,0 +1,37 @@
+package com.fentbuscoding.screenshotmetadata.mixin;
+
+import com.fentbuscoding.screenshotmetadata.capture.ClientLoadSampler;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.pipeline.ScreenshotPipeline;
+import com.fentbuscoding.screenshotmetadata.timelapse.TimelapseRecorder;
+import net.minecraft.client.MinecraftClient;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Reports frame timing to the background scheduler, drives timelapse frames, and drains pending screenshot jobs and config
+ * writes when the client stops, so "screenshot then quit" keeps its metadata.
+ * A mixin rather than a lifecycle event because the beta profile ships without the lifecycle API.
+ */
+@Mixin(MinecraftClient.class)
+public abstract class MinecraftClientMixin {
+
+    @Inject(method = "render", at = @At("HEAD"), require = 0)
+    private void screenshotmetadata$sampleFrame(boolean tick, CallbackInfo ci) {
+        ClientLoadSampler.onFrame((MinecraftClient) (Object) this);
+    }
+
+    @Inject(method = "tick", at = @At("TAIL"), require = 0)
+    private void screenshotmetadata$timelapse(CallbackInfo ci) {
+        TimelapseRecorder.onTick((MinecraftClient) (Object) this);
+    }
+
+    @Inject(method = "stop", at = @At("HEAD"), require = 0)
+    private void screenshotmetadata$drainPipeline(CallbackInfo ci) {
+        TimelapseRecorder.stop();
+        ScreenshotPipeline.get().shutdown(ScreenshotMetadataConfig.get().getShutdownDrainTimeoutMillis());
+        ScreenshotMetadataConfig.flush();
+    }
+}
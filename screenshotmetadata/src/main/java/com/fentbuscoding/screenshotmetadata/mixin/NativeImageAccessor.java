@@ -0,0 +1,16 @@
+package com.fentbuscoding.screenshotmetadata.mixin;
+
+import net.minecraft.client.texture.NativeImage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Exposes the address of the image's off-heap pixel buffer for the direct PNG write. Registered
+ * in the optional accessor config; without it screenshots take the vanilla write path.
+ */
+@Mixin(NativeImage.class)
+public interface NativeImageAccessor {
+
+    @Accessor("pointer")
+    long screenshotmetadata$getPointer();
+}
@@ -0,0 +1,73 @@
+package com.fentbuscoding.screenshotmetadata.mixin;
+
+import com.fentbuscoding.screenshotmetadata.capture.NativeImagePixels;
+import com.fentbuscoding.screenshotmetadata.metadata.PngWriteResult;
+import com.fentbuscoding.screenshotmetadata.pipeline.DirectScreenshotWriter;
+import com.fentbuscoding.screenshotmetadata.timelapse.TimelapseSession;
+import com.fentbuscoding.screenshotmetadata.thumbnail.ScreenshotThumbnails;
+import com.fentbuscoding.screenshotmetadata.thumbnail.ThumbnailScaler;
+import net.minecraft.client.texture.NativeImage;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.nio.file.Path;
+
+/**
+ * Encodes screenshots straight from the frame with their metadata attached, and builds the
+ * thumbnail from the frame that was just written while its pixels are still in memory.
+ * Timelapse frames are routed to their session instead. Runs on the IO worker that saves the screenshot.
+ */
+@Mixin(NativeImage.class)
+public abstract class NativeImageMixin {
+
+    @Inject(method = "writeTo(Ljava/nio/file/Path;)V", at = @At("HEAD"), cancellable = true, require = 0)
+    private void screenshotmetadata$writeWithMetadata(Path path, CallbackInfo ci) {
+        if (screenshotmetadata$isTimelapseFrame(path)) {
+            NativeImagePixels pixels = NativeImagePixels.of((NativeImage) (Object) this);
+            if (pixels != null && TimelapseSession.writeFrame(path, pixels)) {
+                ci.cancel();
+            }
+            return;
+        }
+        if (!screenshotmetadata$isScreenshot(path)) {
+            return;
+        }
+        NativeImage image = (NativeImage) (Object) this;
+        NativeImagePixels pixels = NativeImagePixels.of(image);
+        PngWriteResult written = pixels != null ? DirectScreenshotWriter.write(path, pixels) : null;
+        if (written != null) {
+            // The vanilla write (and with it the TAIL hook) is skipped
+            screenshotmetadata$thumbnail(path, image, written.getContentHash());
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "writeTo(Ljava/nio/file/Path;)V", at = @At("TAIL"), require = 0)
+    private void screenshotmetadata$createThumbnail(Path path, CallbackInfo ci) {
+        if (screenshotmetadata$isTimelapseFrame(path)) {
+            TimelapseSession.onWrittenElsewhere(path);
+        } else if (screenshotmetadata$isScreenshot(path)) {
+            screenshotmetadata$thumbnail(path, (NativeImage) (Object) this, null);
+        }
+    }
+
+    private static boolean screenshotmetadata$isScreenshot(Path path) {
+        Path parent = path != null ? path.toAbsolutePath().getParent() : null;
+        // Only regular screenshots; panoramas and other subfolders are left alone
+        return parent != null && parent.getFileName() != null && "screenshots".equals(parent.getFileName().toString());
+    }
+
+    private static boolean screenshotmetadata$isTimelapseFrame(Path path) {
+        Path parent = path != null ? path.toAbsolutePath().getParent() : null;
+        Path sessions = parent != null ? parent.getParent() : null;
+        return sessions != null && sessions.getFileName() != null
+            && TimelapseSession.FOLDER_NAME.equals(sessions.getFileName().toString());
+    }
+
+    private static void screenshotmetadata$thumbnail(Path path, NativeImage image, String contentHash) {
+        ScreenshotThumbnails.onScreenshotWritten(path.toFile(),
+            ThumbnailScaler.fromPixels(image.getWidth(), image.getHeight(), image::getColorArgb), contentHash);
+    }
+}
@@ -0,0 +1,17 @@
+package com.fentbuscoding.screenshotmetadata.mixin;
+
+import net.minecraft.client.render.WorldRenderer;
+import net.minecraft.client.render.chunk.ChunkBuilder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Exposes the chunk builder so the frame sampler can read the build backlog. Registered in the
+ * optional accessor config, so a version without the field only loses the backlog reading.
+ */
+@Mixin(WorldRenderer.class)
+public interface WorldRendererAccessor {
+
+    @Accessor("chunkBuilder")
+    ChunkBuilder screenshotmetadata$getChunkBuilder();
+}
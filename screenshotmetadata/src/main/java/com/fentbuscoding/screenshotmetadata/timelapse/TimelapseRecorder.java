@@ -0,0 +1,111 @@
+package com.fentbuscoding.screenshotmetadata.timelapse;
+
+import com.fentbuscoding.screenshotmetadata.ScreenshotMetadataMod;
+import com.fentbuscoding.screenshotmetadata.capture.ScreenshotMetadataCollector;
+import com.fentbuscoding.screenshotmetadata.config.ScreenshotMetadataConfig;
+import com.fentbuscoding.screenshotmetadata.pipeline.CaptureSnapshot;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.util.ScreenshotRecorder;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Takes timelapse frames every {@code timelapseIntervalMillis} and/or every
+ * {@code timelapseDistanceBlocks} moved, through the game's own screenshot path. A session starts
+ * when timelapse mode is enabled in a world and ends when it is disabled or the world is left.
+ * Client tick only.
+ */
+public final class TimelapseRecorder {
+    private static TimelapseSession session;
+    private static long nextFrameAtMillis;
+    private static double[] lastFramePosition;
+    private static boolean unsupported;
+
+    private TimelapseRecorder() {
+    }
+
+    public static void onTick(MinecraftClient client) {
+        ScreenshotMetadataConfig config = ScreenshotMetadataConfig.get();
+        if (!config.isTimelapseEnabled() || unsupported || client.world == null || client.player == null) {
+            stop();
+            return;
+        }
+        boolean timed = config.getTimelapseIntervalMillis() > 0;
+        boolean moved = config.getTimelapseDistanceBlocks() > 0;
+        if (!timed && !moved) {
+            stop();
+            return;
+        }
+
+        if (session == null && !start(client, config)) {
+            return;
+        }
+        session.expireStale();
+
+        long now = System.currentTimeMillis();
+        double[] position = {client.player.getX(), client.player.getY(), client.player.getZ()};
+        boolean due = (timed && now >= nextFrameAtMillis)
+            || (moved && (lastFramePosition == null
+                || squaredDistance(lastFramePosition, position) >= (double) config.getTimelapseDistanceBlocks() * config.getTimelapseDistanceBlocks()));
+        if (!due) {
+            return;
+        }
+        // Fixed rate, but a stall never triggers a burst of catch-up frames
+        nextFrameAtMillis = Math.max(nextFrameAtMillis + config.getTimelapseIntervalMillis(), now);
+        lastFramePosition = position;
+
+        CaptureSnapshot snapshot = ScreenshotMetadataCollector.capture(client, client.runDirectory, null);
+        Map<String, String> metadata = snapshot != null ? snapshot.copyMetadata() : Map.of();
+        TimelapseSession.Frame frame = session.reserve(metadata);
+        if (frame == null) {
+            return;
+        }
+        try {
+            ScreenshotRecorder.saveScreenshot(client.runDirectory, frame.getScreenshotFileName(),
+                client.getFramebuffer(), 1, message -> { });
+        } catch (LinkageError e) {
+            // The screenshot entry point differs in this game version; do not retry every tick
+            ScreenshotMetadataMod.LOGGER.warn("Timelapse mode is not supported on this game version: {}", e.getMessage());
+            unsupported = true;
+            session.cancel(frame);
+            stop();
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.debug("Timelapse frame could not be captured: {}", e.getMessage());
+            session.cancel(frame);
+        }
+    }
+
+    /**
+     * Ends the current session, if any; frames already captured are still written.
+     */
+    public static void stop() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+        lastFramePosition = null;
+    }
+
+    private static boolean start(MinecraftClient client, ScreenshotMetadataConfig config) {
+        try {
+            long interval = config.getTimelapseIntervalMillis() > 0 ? config.getTimelapseIntervalMillis() : 1_000L;
+            session = TimelapseSession.start(new File(client.runDirectory, "screenshots"),
+                config.getTimelapseMaxInFlightFrames(), interval, config.getPngTextCompressionThreshold());
+            nextFrameAtMillis = System.currentTimeMillis();
+            ScreenshotMetadataMod.LOGGER.info("Timelapse recording to {}", session.getDirectory());
+            return true;
+        } catch (Exception e) {
+            ScreenshotMetadataMod.LOGGER.warn("Could not start timelapse: {}", e.getMessage());
+            unsupported = true;
+            return false;
+        }
+    }
+
+    private static double squaredDistance(double[] from, double[] to) {
+        double dx = to[0] - from[0];
+        double dy = to[1] - from[1];
+        double dz = to[2] - from[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}